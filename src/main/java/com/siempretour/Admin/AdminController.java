@@ -13,13 +13,17 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -30,9 +34,14 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AdminController {
 
+    private static final String PAGINATION_OFFSET = "offset";
+    private static final String PAGINATION_CURSOR = "cursor";
+
     private final AdminService adminService;
     private final TourService tourService;
     private final AdminImageStorageService imageStorageService;
+    private final RequestRollupService rollupService;
+    private final AdminExportService exportService;
 
     @GetMapping("/analytics/summary")
     public ResponseEntity<AdminSummaryDto> getSummary(
@@ -74,6 +83,11 @@ public class AdminController {
         return ResponseEntity.ok(adminService.getTopCategories(startDate, endDate, tourId, category, limit));
     }
 
+    @PostMapping("/analytics/rollups/rebuild")
+    public ResponseEntity<Map<String, Integer>> rebuildRollups() {
+        return ResponseEntity.ok(Map.of("rows", rollupService.rebuild()));
+    }
+
     @GetMapping("/requests")
     public ResponseEntity<PagedResponse<AdminRequestDto>> getRequests(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
@@ -82,8 +96,53 @@ public class AdminController {
             @RequestParam(required = false) TourCategory category,
             @RequestParam(required = false, defaultValue = "all") String type,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(adminService.getRequests(startDate, endDate, tourId, category, type, page, size));
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = PAGINATION_OFFSET) String pagination,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(adminService.getRequests(startDate, endDate, tourId, category, type, page, size,
+                cursor, PAGINATION_CURSOR.equalsIgnoreCase(pagination)));
+    }
+
+    // Streams every matching row as CSV (default) or NDJSON; no paging, constant memory
+    @GetMapping("/requests/export")
+    public ResponseEntity<StreamingResponseBody> exportRequests(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long tourId,
+            @RequestParam(required = false) TourCategory category,
+            @RequestParam(required = false, defaultValue = "all") String type,
+            @RequestParam(defaultValue = "csv") String format) {
+        AdminExportService.Format exportFormat = AdminExportService.Format.parse(format);
+        return export("requests", exportFormat, exportService.exportRequests(startOfDay(startDate), endOfDay(endDate),
+                tourId, category, type, exportFormat));
+    }
+
+    @GetMapping("/bookings/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long tourId,
+            @RequestParam(required = false) TourCategory category,
+            @RequestParam(defaultValue = "csv") String format) {
+        AdminExportService.Format exportFormat = AdminExportService.Format.parse(format);
+        return export("bookings", exportFormat, exportService.exportBookings(startOfDay(startDate), endOfDay(endDate),
+                tourId, category, exportFormat));
+    }
+
+    private static ResponseEntity<StreamingResponseBody> export(String name, AdminExportService.Format format,
+            StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(format.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + name + "." + format.extension() + "\"")
+                .body(body);
+    }
+
+    private static LocalDateTime startOfDay(LocalDate date) {
+        return date == null ? null : date.atStartOfDay();
+    }
+
+    private static LocalDateTime endOfDay(LocalDate date) {
+        return date == null ? null : date.atTime(LocalTime.MAX);
     }
 
     @GetMapping("/contact-messages")
@@ -106,7 +165,6 @@ public class AdminController {
             @RequestParam(defaultValue = "updatedAt") String sortBy,
             @RequestParam(defaultValue = "desc") String sortDirection) {
         TourFilterDto filter = new TourFilterDto();
-        filter.setName(q);
         filter.setSearchQuery(q);
         filter.setDestination(destination);
         filter.setLanguage(lang);
@@ -0,0 +1,250 @@
+package com.siempretour.Admin;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siempretour.Admin.Dto.AdminRequestDto;
+import com.siempretour.Booking.Booking;
+import com.siempretour.Booking.BookingRepository;
+import com.siempretour.Booking.Dto.BookingResponseDto;
+import com.siempretour.Contact.ContactMessage;
+import com.siempretour.Contact.ContactMessageRepository;
+import com.siempretour.Exceptions.ErrorCodes;
+import com.siempretour.Exceptions.GlobalException;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourCategory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * CSV / NDJSON exports of the admin inbox and of bookings. Rows are read from forward-only
+ * database cursors inside a read-only transaction and written to the response one by one,
+ * each entity detached once written, so memory use does not grow with the export size.
+ */
+@Slf4j
+@Service
+public class AdminExportService {
+
+    private static final List<String> REQUEST_COLUMNS = List.of("id", "type", "tourId", "tourName", "category",
+            "destination", "requesterName", "requesterEmail", "requesterPhone", "numberOfPeople", "status",
+            "message", "createdAt");
+    private static final List<String> BOOKING_COLUMNS = List.of("id", "tourId", "tourName", "userId", "userEmail",
+            "userName", "userPhone", "numberOfPeople", "status", "approvedBy", "approvedAt", "rejectedBy",
+            "rejectedAt", "createdAt", "updatedAt");
+
+    private final BookingRepository bookingRepository;
+    private final ContactMessageRepository contactMessageRepository;
+    private final AdminService adminService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnly;
+
+    public AdminExportService(
+            BookingRepository bookingRepository,
+            ContactMessageRepository contactMessageRepository,
+            AdminService adminService,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager) {
+        this.bookingRepository = bookingRepository;
+        this.contactMessageRepository = contactMessageRepository;
+        this.adminService = adminService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public enum Format {
+        CSV("csv", new MediaType("text", "csv", StandardCharsets.UTF_8)),
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public static Format parse(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
+        }
+    }
+
+    /** Same rows and order as the admin inbox (GET /api/admin/requests), without paging. */
+    public StreamingResponseBody exportRequests(LocalDateTime start, LocalDateTime end, Long tourId, TourCategory category,
+            String requestType, Format format) {
+        boolean reservations = adminService.includeReservations(requestType);
+        boolean information = adminService.includeInformation(requestType) && tourId == null && category == null;
+        return out -> readOnly.executeWithoutResult(status -> {
+            try (Stream<Booking> bookings = reservations
+                    ? bookingRepository.streamAdminRequests(start, end, tourId, category) : Stream.empty();
+                 Stream<ContactMessage> contacts = information
+                         ? contactMessageRepository.streamAdminRequests(start, end) : Stream.empty()) {
+                Iterator<AdminRequestDto> rows = new NewestFirstMerge(
+                        bookings.map(detaching(adminService::bookingToRequest)).iterator(),
+                        contacts.map(detaching(adminService::contactToRequest)).iterator());
+                write(out, format, REQUEST_COLUMNS, rows, AdminExportService::requestRow);
+            }
+        });
+    }
+
+    public StreamingResponseBody exportBookings(LocalDateTime start, LocalDateTime end, Long tourId, TourCategory category,
+            Format format) {
+        return out -> readOnly.executeWithoutResult(status -> {
+            try (Stream<Booking> bookings = bookingRepository.streamAdminRequests(start, end, tourId, category)) {
+                write(out, format, BOOKING_COLUMNS,
+                        bookings.map(detaching(AdminExportService::toBookingResponse)).iterator(),
+                        AdminExportService::bookingRow);
+            }
+        });
+    }
+
+    private <E, R> Function<E, R> detaching(Function<E, R> mapper) {
+        return entity -> {
+            R row = mapper.apply(entity);
+            entityManager.detach(entity);
+            return row;
+        };
+    }
+
+    private <R> void write(OutputStream out, Format format, List<String> columns, Iterator<R> rows,
+            Function<R, List<Object>> toCells) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+        try {
+            if (format == Format.CSV) {
+                writeCsvLine(writer, columns);
+            }
+            while (rows.hasNext()) {
+                R row = rows.next();
+                if (format == Format.CSV) {
+                    writeCsvLine(writer, toCells.apply(row));
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+                count++;
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exported {} rows as {}", count, format);
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> cells) throws IOException {
+        for (int i = 0; i < cells.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvCell(cells.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    // RFC 4180 quoting; values starting with a formula character are prefixed so spreadsheets
+    // show them as text instead of evaluating them
+    private static String csvCell(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (!text.isEmpty() && "=+-@".indexOf(text.charAt(0)) >= 0 && !(value instanceof Number)) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+
+    private static List<Object> requestRow(AdminRequestDto r) {
+        return Arrays.asList(r.getId(), r.getType(), r.getTourId(), r.getTourName(), r.getCategory(),
+                r.getDestination(), r.getRequesterName(), r.getRequesterEmail(), r.getRequesterPhone(),
+                r.getNumberOfPeople(), r.getStatus(), r.getMessage(), r.getCreatedAt());
+    }
+
+    private static List<Object> bookingRow(BookingResponseDto b) {
+        return Arrays.asList(b.getId(), b.getTourId(), b.getTourName(), b.getUserId(), b.getUserEmail(),
+                b.getUserName(), b.getUserPhone(), b.getNumberOfPeople(), b.getStatus(), b.getApprovedBy(),
+                b.getApprovedAt(), b.getRejectedBy(), b.getRejectedAt(), b.getCreatedAt(), b.getUpdatedAt());
+    }
+
+    private static BookingResponseDto toBookingResponse(Booking b) {
+        Tour tour = b.getTour();
+        return new BookingResponseDto(b.getId(), tour.getId(), tour.getName(), b.getUserId(), b.getUserEmail(),
+                b.getUserName(), b.getUserPhone(), b.getNumberOfPeople(), b.getStatus(), b.getApprovedBy(),
+                b.getApprovedAt(), b.getRejectedBy(), b.getRejectedAt(), b.getCreatedAt(), b.getUpdatedAt());
+    }
+
+    /** Streaming counterpart of AdminService.mergeNewestFirst: reservations first at equal timestamps. */
+    private static final class NewestFirstMerge implements Iterator<AdminRequestDto> {
+
+        private final Iterator<AdminRequestDto> reservations;
+        private final Iterator<AdminRequestDto> information;
+        private AdminRequestDto nextReservation;
+        private AdminRequestDto nextInformation;
+
+        NewestFirstMerge(Iterator<AdminRequestDto> reservations, Iterator<AdminRequestDto> information) {
+            this.reservations = reservations;
+            this.information = information;
+            this.nextReservation = reservations.hasNext() ? reservations.next() : null;
+            this.nextInformation = information.hasNext() ? information.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextReservation != null || nextInformation != null;
+        }
+
+        @Override
+        public AdminRequestDto next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            AdminRequestDto row;
+            if (nextInformation == null || (nextReservation != null
+                    && !nextReservation.getCreatedAt().isBefore(nextInformation.getCreatedAt()))) {
+                row = nextReservation;
+                nextReservation = reservations.hasNext() ? reservations.next() : null;
+            } else {
+                row = nextInformation;
+                nextInformation = information.hasNext() ? information.next() : null;
+            }
+            return row;
+        }
+    }
+}
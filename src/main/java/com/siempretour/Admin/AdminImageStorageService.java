@@ -21,6 +21,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 @Service
@@ -48,6 +49,8 @@ public class AdminImageStorageService {
     private String cloudinaryFolder;
 
     private volatile Cloudinary cloudinary;
+    // A lock rather than synchronized: a virtual thread blocked in a monitor pins its carrier
+    private final ReentrantLock cloudinaryLock = new ReentrantLock();
 
     private boolean cloudinaryEnabled() {
         return cloudinaryUrl != null && !cloudinaryUrl.isBlank();
@@ -55,11 +58,15 @@ public class AdminImageStorageService {
 
     private Cloudinary cloudinary() {
         if (cloudinary == null) {
-            synchronized (this) {
+            cloudinaryLock.lock();
+            try {
                 if (cloudinary == null) {
-                    cloudinary = new Cloudinary(cloudinaryUrl);
-                    cloudinary.config.secure = true;
+                    Cloudinary client = new Cloudinary(cloudinaryUrl);
+                    client.config.secure = true;
+                    cloudinary = client;
                 }
+            } finally {
+                cloudinaryLock.unlock();
             }
         }
         return cloudinary;
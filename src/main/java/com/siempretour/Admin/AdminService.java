@@ -7,13 +7,17 @@ import com.siempretour.Contact.ContactMessage;
 import com.siempretour.Contact.ContactMessageRepository;
 import com.siempretour.Exceptions.ErrorCodes;
 import com.siempretour.Exceptions.GlobalException;
+import com.siempretour.Filter.KeysetCursor;
 import com.siempretour.Filter.PagedResponse;
+import com.siempretour.Filter.PaginationConstants;
 import com.siempretour.Tours.Dto.TourFilterDto;
 import com.siempretour.Tours.Models.Tour;
 import com.siempretour.Tours.Models.TourCategory;
 import com.siempretour.Tours.Models.TourStatus;
+import com.siempretour.Tours.TourChangedEvent;
 import com.siempretour.Tours.TourRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -26,11 +30,9 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,25 +42,46 @@ public class AdminService {
     private final BookingRepository bookingRepository;
     private final ContactMessageRepository contactMessageRepository;
     private final TourRepository tourRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RequestRollupRepository rollupRepository;
+    private final RequestRollupService rollupService;
 
     public AdminSummaryDto getSummary(LocalDate startDate, LocalDate endDate, Long tourId, TourCategory category, String requestType) {
         LocalDateTime start = startDateTime(startDate);
         LocalDateTime end = endDateTime(endDate);
-        List<Booking> bookings = includeReservations(requestType) ? bookingRepository.findAdminRequests(start, end, tourId, category) : List.of();
-        List<ContactMessage> contacts = includeInformation(requestType) && tourId == null && category == null
-                ? contactMessageRepository.findAdminRequests(start, end)
-                : List.of();
+        boolean reservations = includeReservations(requestType);
+        boolean information = includeInformation(requestType) && tourId == null && category == null;
 
+        // "This month" is the part of the selected range that falls in the current month
         LocalDateTime monthStart = YearMonth.now().atDay(1).atStartOfDay();
-        long thisMonthReservations = bookings.stream().filter(b -> !b.getCreatedAt().isBefore(monthStart)).count();
-        long thisMonthInformation = contacts.stream().filter(c -> !c.getCreatedAt().isBefore(monthStart)).count();
+        LocalDateTime monthFrom = start == null || start.isBefore(monthStart) ? monthStart : start;
+
+        long totalReservations;
+        long totalInformation;
+        long thisMonthReservations;
+        long thisMonthInformation;
+        if (rollupService.isEnabled()) {
+            Map<String, Long> totals = sumByType(startDate, endDate, tourId, category);
+            Map<String, Long> thisMonth = sumByType(monthFrom.toLocalDate(), endDate, tourId, category);
+            totalReservations = reservations ? totals.getOrDefault(RequestRollup.RESERVATION, 0L) : 0;
+            totalInformation = information ? totals.getOrDefault(RequestRollup.INFORMATION, 0L) : 0;
+            thisMonthReservations = reservations ? thisMonth.getOrDefault(RequestRollup.RESERVATION, 0L) : 0;
+            thisMonthInformation = information ? thisMonth.getOrDefault(RequestRollup.INFORMATION, 0L) : 0;
+        } else {
+            totalReservations = reservations ? bookingRepository.countAdminRequests(start, end, tourId, category) : 0;
+            totalInformation = information ? contactMessageRepository.countAdminRequests(start, end) : 0;
+            thisMonthReservations = reservations && totalReservations > 0
+                    ? bookingRepository.countAdminRequests(monthFrom, end, tourId, category) : 0;
+            thisMonthInformation = information && totalInformation > 0
+                    ? contactMessageRepository.countAdminRequests(monthFrom, end) : 0;
+        }
 
         return AdminSummaryDto.builder()
-                .totalReservationRequests(bookings.size())
-                .totalInformationRequests(contacts.size())
+                .totalReservationRequests(totalReservations)
+                .totalInformationRequests(totalInformation)
                 .thisMonthRequests(thisMonthReservations + thisMonthInformation)
-                .mostRequestedTour(topTours(bookings, 1).stream().findFirst().orElse(null))
-                .mostPopularCategory(topCategories(bookings, 1).stream().findFirst().orElse(null))
+                .mostRequestedTour(totalReservations > 0 ? topTours(start, end, tourId, category, 1).stream().findFirst().orElse(null) : null)
+                .mostPopularCategory(totalReservations > 0 ? topCategories(start, end, tourId, category, 1).stream().findFirst().orElse(null) : null)
                 .genderDataAvailable(false)
                 .ageDataAvailable(false)
                 .build();
@@ -70,15 +93,28 @@ public class AdminService {
         LocalDateTime startDateTime = start.atStartOfDay();
         LocalDateTime endDateTime = end.atTime(LocalTime.MAX);
 
-        List<Booking> bookings = includeReservations(requestType) ? bookingRepository.findAdminRequests(startDateTime, endDateTime, tourId, category) : List.of();
-        List<ContactMessage> contacts = includeInformation(requestType) && tourId == null && category == null
-                ? contactMessageRepository.findAdminRequests(startDateTime, endDateTime)
-                : List.of();
-
-        Map<LocalDate, Long> reservationsByDate = bookings.stream()
-                .collect(Collectors.groupingBy(b -> b.getCreatedAt().toLocalDate(), LinkedHashMap::new, Collectors.counting()));
-        Map<LocalDate, Long> informationByDate = contacts.stream()
-                .collect(Collectors.groupingBy(c -> c.getCreatedAt().toLocalDate(), LinkedHashMap::new, Collectors.counting()));
+        boolean reservations = includeReservations(requestType);
+        boolean information = includeInformation(requestType) && tourId == null && category == null;
+        Map<LocalDate, Long> reservationsByDate = new HashMap<>();
+        Map<LocalDate, Long> informationByDate = new HashMap<>();
+        if (rollupService.isEnabled()) {
+            for (RequestRollupRepository.DailyTypeCount row : rollupRepository.sumByDay(start, end, tourId, category)) {
+                if (reservations && RequestRollup.RESERVATION.equals(row.getRequestType())) {
+                    reservationsByDate.put(row.getDay(), row.getRequests());
+                } else if (information && RequestRollup.INFORMATION.equals(row.getRequestType())) {
+                    informationByDate.put(row.getDay(), row.getRequests());
+                }
+            }
+        } else {
+            if (reservations) {
+                bookingRepository.countAdminRequestsPerDay(startDateTime, endDateTime, tourId, category)
+                        .forEach(row -> reservationsByDate.put(row.getDay(), row.getRequests()));
+            }
+            if (information) {
+                contactMessageRepository.countAdminRequestsPerDay(startDateTime, endDateTime)
+                        .forEach(row -> informationByDate.put(row.getDay(), row.getRequests()));
+            }
+        }
 
         List<AdminTimeSeriesPointDto> points = new ArrayList<>();
         for (LocalDate day = start; !day.isAfter(end); day = day.plusDays(1)) {
@@ -92,20 +128,23 @@ public class AdminService {
     }
 
     public List<AdminDemandDto> getTopTours(LocalDate startDate, LocalDate endDate, Long tourId, TourCategory category, int limit) {
-        List<Booking> bookings = bookingRepository.findAdminRequests(startDateTime(startDate), endDateTime(endDate), tourId, category);
-        return topTours(bookings, limit);
+        return topTours(startDateTime(startDate), endDateTime(endDate), tourId, category, limit);
     }
 
     public List<AdminDemandDto> getTopCategories(LocalDate startDate, LocalDate endDate, Long tourId, TourCategory category, int limit) {
-        List<Booking> bookings = bookingRepository.findAdminRequests(startDateTime(startDate), endDateTime(endDate), tourId, category);
-        return topCategories(bookings, limit);
+        return topCategories(startDateTime(startDate), endDateTime(endDate), tourId, category, limit);
     }
 
-    public PagedResponse<AdminRequestDto> getRequests(LocalDate startDate, LocalDate endDate, Long tourId, TourCategory category, String requestType, int page, int size) {
+    public PagedResponse<AdminRequestDto> getRequests(LocalDate startDate, LocalDate endDate, Long tourId, TourCategory category, String requestType, int page, int size,
+            String cursor, boolean keyset) {
         Pageable pageable = PageRequest.of(Math.max(page, 0), Math.max(size, 1), Sort.by("createdAt").descending());
         LocalDateTime start = startDateTime(startDate);
         LocalDateTime end = endDateTime(endDate);
 
+        if (keyset) {
+            return getRequestsAfter(start, end, tourId, category, requestType, size, cursor);
+        }
+
         if ("reservation".equalsIgnoreCase(requestType)) {
             Page<Booking> bookingPage = bookingRepository.findAdminRequestsPaged(start, end, tourId, category, pageable);
             return toPaged(bookingPage.map(this::bookingToRequest).getContent(), bookingPage.getNumber(), bookingPage.getSize(), bookingPage.getTotalElements());
@@ -119,16 +158,92 @@ public class AdminService {
             return toPaged(contactPage.map(this::contactToRequest).getContent(), contactPage.getNumber(), contactPage.getSize(), contactPage.getTotalElements());
         }
 
-        List<AdminRequestDto> combined = new ArrayList<>();
-        bookingRepository.findAdminRequests(start, end, tourId, category).forEach(b -> combined.add(bookingToRequest(b)));
-        if (tourId == null && category == null) {
-            contactMessageRepository.findAdminRequests(start, end).forEach(c -> combined.add(contactToRequest(c)));
+        // Both sources are read newest-first and merged, so only the rows up to the end of the
+        // requested page are loaded; totals come from count queries.
+        boolean information = tourId == null && category == null;
+        int needed = (int) Math.min((long) (pageable.getPageNumber() + 1) * pageable.getPageSize(), Integer.MAX_VALUE);
+        List<AdminRequestDto> merged = mergeNewestFirst(
+                bookingRequestsAfter(start, end, tourId, category, null, null, needed),
+                information ? contactRequestsAfter(start, end, null, null, needed) : List.of(),
+                needed);
+        long total = bookingRepository.countAdminRequests(start, end, tourId, category)
+                + (information ? contactMessageRepository.countAdminRequests(start, end) : 0);
+
+        int from = (int) Math.min((long) pageable.getPageNumber() * pageable.getPageSize(), merged.size());
+        return toPaged(merged.subList(from, merged.size()), pageable.getPageNumber(), pageable.getPageSize(), total);
+    }
+
+    /**
+     * Keyset pages over the merged inbox. Rows are ordered by createdAt desc, reservations before
+     * information requests at equal timestamps, then id desc; the cursor is the last row's
+     * (type, createdAt, id), from which each source resumes on its own.
+     */
+    private PagedResponse<AdminRequestDto> getRequestsAfter(LocalDateTime start, LocalDateTime end, Long tourId, TourCategory category,
+            String requestType, int size, String cursor) {
+        int pageSize = PaginationConstants.normalizePageSize(size);
+        KeysetCursor after = decodeRequestCursor(cursor);
+        LocalDateTime at = after != null ? after.value() : null;
+        boolean afterReservation = after != null && RequestRollup.RESERVATION.equals(after.key());
+
+        // After an information request, every reservation at that timestamp has already been shown
+        List<AdminRequestDto> bookings = includeReservations(requestType)
+                ? bookingRequestsAfter(start, end, tourId, category, at, after == null ? null : afterReservation ? after.id() : 0L, pageSize + 1)
+                : List.of();
+        // After a reservation, no information request at that timestamp has been shown yet
+        List<AdminRequestDto> contacts = includeInformation(requestType) && tourId == null && category == null
+                ? contactRequestsAfter(start, end, at, after == null ? null : afterReservation ? Long.MAX_VALUE : after.id(), pageSize + 1)
+                : List.of();
+
+        List<AdminRequestDto> rows = mergeNewestFirst(bookings, contacts, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<AdminRequestDto> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            AdminRequestDto last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(last.getType(), last.getCreatedAt(), last.getId()).encode();
+        }
+        return PagedResponse.<AdminRequestDto>builder()
+                .content(content)
+                .page(0)
+                .size(pageSize)
+                .first(after == null)
+                .last(!hasNext)
+                .hasNext(hasNext)
+                .hasPrevious(after != null)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    private List<AdminRequestDto> bookingRequestsAfter(LocalDateTime start, LocalDateTime end, Long tourId, TourCategory category,
+            LocalDateTime createdAt, Long id, int limit) {
+        return bookingRepository.findAdminRequestsAfter(start, end, tourId, category, createdAt, id, PageRequest.of(0, limit))
+                .stream().map(this::bookingToRequest).collect(Collectors.toList());
+    }
+
+    private List<AdminRequestDto> contactRequestsAfter(LocalDateTime start, LocalDateTime end, LocalDateTime createdAt, Long id, int limit) {
+        return contactMessageRepository.findAdminRequestsAfter(start, end, createdAt, id, PageRequest.of(0, limit))
+                .stream().map(this::contactToRequest).collect(Collectors.toList());
+    }
+
+    // Two-way merge of newest-first lists, reservations first at equal timestamps
+    private static List<AdminRequestDto> mergeNewestFirst(List<AdminRequestDto> reservations, List<AdminRequestDto> information, int limit) {
+        List<AdminRequestDto> merged = new ArrayList<>(Math.min(limit, reservations.size() + information.size()));
+        int r = 0;
+        int i = 0;
+        while (merged.size() < limit && (r < reservations.size() || i < information.size())) {
+            boolean takeReservation = i >= information.size() || (r < reservations.size()
+                    && !reservations.get(r).getCreatedAt().isBefore(information.get(i).getCreatedAt()));
+            merged.add(takeReservation ? reservations.get(r++) : information.get(i++));
         }
-        combined.sort(Comparator.comparing(AdminRequestDto::getCreatedAt, Comparator.nullsLast(Comparator.naturalOrder())).reversed());
+        return merged;
+    }
 
-        int from = Math.min(pageable.getPageNumber() * pageable.getPageSize(), combined.size());
-        int to = Math.min(from + pageable.getPageSize(), combined.size());
-        return toPaged(combined.subList(from, to), pageable.getPageNumber(), pageable.getPageSize(), combined.size());
+    private static KeysetCursor decodeRequestCursor(String token) {
+        KeysetCursor cursor = KeysetCursor.decode(token);
+        if (cursor != null && !RequestRollup.RESERVATION.equals(cursor.key()) && !RequestRollup.INFORMATION.equals(cursor.key())) {
+            throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
+        }
+        return cursor;
     }
 
     @Transactional
@@ -138,6 +253,7 @@ public class AdminService {
         tour.setIsActive(false);
         tour.setStatus(TourStatus.CANCELLED);
         tourRepository.save(tour);
+        eventPublisher.publishEvent(TourChangedEvent.of(tour, TourChangedEvent.Kind.DELETED));
     }
 
     public AdminDeleteImpactDto getDeleteImpact(Long tourId) {
@@ -161,55 +277,51 @@ public class AdminService {
         if (!impact.isCanPermanentlyDelete()) {
             throw new GlobalException(ErrorCodes.TOUR_COULD_NOT_BE_DELETED);
         }
-        tourRepository.deleteById(tourId);
+        Tour tour = tourRepository.findById(tourId)
+                .orElseThrow(() -> new GlobalException(ErrorCodes.TOUR_COULD_NOT_BE_FOUND));
+        tourRepository.delete(tour);
+        eventPublisher.publishEvent(TourChangedEvent.of(tour, TourChangedEvent.Kind.DELETED));
     }
 
-    private List<AdminDemandDto> topTours(List<Booking> bookings, int limit) {
-        return bookings.stream()
-                .filter(b -> b.getTour() != null)
-                .collect(Collectors.groupingBy(Booking::getTour, Collectors.counting()))
-                .entrySet().stream()
-                .sorted(Map.Entry.<Tour, Long>comparingByValue().reversed())
-                .limit(Math.max(limit, 1))
-                .map(entry -> demandForTour(entry.getKey(), entry.getValue()))
+    private List<AdminDemandDto> topTours(LocalDateTime start, LocalDateTime end, Long tourId, TourCategory category, int limit) {
+        Pageable top = PageRequest.of(0, Math.max(limit, 1));
+        List<BookingRepository.TourCount> rows = rollupService.isEnabled()
+                ? rollupRepository.sumByTour(day(start), day(end), tourId, category, top)
+                : bookingRepository.countAdminRequestsPerTour(start, end, tourId, category, top);
+        return rows.stream()
+                .map(row -> AdminDemandDto.builder()
+                        .id(row.getTourId())
+                        .name(row.getName())
+                        .category(row.getCategory() != null ? row.getCategory().getDisplayName() : null)
+                        .destination(row.getDestination())
+                        .reservationRequests(row.getRequests())
+                        .informationRequests(0)
+                        .totalRequests(row.getRequests())
+                        .build())
                 .collect(Collectors.toList());
     }
 
-    private List<AdminDemandDto> topCategories(List<Booking> bookings, int limit) {
-        return bookings.stream()
-                .map(b -> b.getTour() != null ? b.getTour().getCategory() : null)
-                .filter(Objects::nonNull)
-                .collect(Collectors.groupingBy(category -> category, Collectors.counting()))
-                .entrySet().stream()
-                .sorted(Map.Entry.<TourCategory, Long>comparingByValue().reversed())
-                .limit(Math.max(limit, 1))
-                .map(entry -> AdminDemandDto.builder()
-                        .name(entry.getKey().getDisplayName())
-                        .category(entry.getKey().name())
-                        .reservationRequests(entry.getValue())
+    private List<AdminDemandDto> topCategories(LocalDateTime start, LocalDateTime end, Long tourId, TourCategory category, int limit) {
+        Pageable top = PageRequest.of(0, Math.max(limit, 1));
+        List<BookingRepository.CategoryCount> rows = rollupService.isEnabled()
+                ? rollupRepository.sumByCategory(day(start), day(end), tourId, category, top)
+                : bookingRepository.countAdminRequestsPerCategory(start, end, tourId, category, top);
+        return rows.stream()
+                .map(row -> AdminDemandDto.builder()
+                        .name(row.getCategory().getDisplayName())
+                        .category(row.getCategory().name())
+                        .reservationRequests(row.getRequests())
                         .informationRequests(0)
-                        .totalRequests(entry.getValue())
+                        .totalRequests(row.getRequests())
                         .build())
                 .collect(Collectors.toList());
     }
 
-    private AdminDemandDto demandForTour(Tour tour, long reservationCount) {
-        return AdminDemandDto.builder()
-                .id(tour.getId())
-                .name(tour.getName())
-                .category(tour.getCategory() != null ? tour.getCategory().getDisplayName() : null)
-                .destination(tour.getDestination())
-                .reservationRequests(reservationCount)
-                .informationRequests(0)
-                .totalRequests(reservationCount)
-                .build();
-    }
-
-    private AdminRequestDto bookingToRequest(Booking booking) {
+    AdminRequestDto bookingToRequest(Booking booking) {
         Tour tour = booking.getTour();
         return AdminRequestDto.builder()
                 .id(booking.getId())
-                .type("reservation")
+                .type(RequestRollup.RESERVATION)
                 .tourId(tour != null ? tour.getId() : null)
                 .tourName(tour != null ? tour.getName() : null)
                 .category(tour != null && tour.getCategory() != null ? tour.getCategory().getDisplayName() : null)
@@ -224,10 +336,10 @@ public class AdminService {
                 .build();
     }
 
-    private AdminRequestDto contactToRequest(ContactMessage contact) {
+    AdminRequestDto contactToRequest(ContactMessage contact) {
         return AdminRequestDto.builder()
                 .id(contact.getId())
-                .type("information")
+                .type(RequestRollup.INFORMATION)
                 .requesterName(contact.getName())
                 .requesterEmail(contact.getEmail())
                 .status(contact.isEmailSent() ? "EMAIL_SENT" : "RECEIVED")
@@ -281,14 +393,25 @@ public class AdminService {
                 .build();
     }
 
-    private boolean includeReservations(String requestType) {
+    boolean includeReservations(String requestType) {
         return requestType == null || requestType.isBlank() || "all".equalsIgnoreCase(requestType) || "reservation".equalsIgnoreCase(requestType);
     }
 
-    private boolean includeInformation(String requestType) {
+    boolean includeInformation(String requestType) {
         return requestType == null || requestType.isBlank() || "all".equalsIgnoreCase(requestType) || "information".equalsIgnoreCase(requestType);
     }
 
+    private Map<String, Long> sumByType(LocalDate startDay, LocalDate endDay, Long tourId, TourCategory category) {
+        Map<String, Long> totals = new HashMap<>();
+        rollupRepository.sumByType(startDay, endDay, tourId, category)
+                .forEach(row -> totals.put(row.getRequestType(), row.getRequests()));
+        return totals;
+    }
+
+    private LocalDate day(LocalDateTime dateTime) {
+        return dateTime == null ? null : dateTime.toLocalDate();
+    }
+
     private LocalDateTime startDateTime(LocalDate date) {
         return date == null ? null : date.atStartOfDay();
     }
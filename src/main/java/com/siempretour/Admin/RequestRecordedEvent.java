@@ -0,0 +1,31 @@
+package com.siempretour.Admin;
+
+import com.siempretour.Booking.Booking;
+import com.siempretour.Contact.ContactMessage;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourCategory;
+
+import java.time.LocalDate;
+
+/**
+ * Published when a booking request or contact message has been saved, so the analytics
+ * rollups can count it once the surrounding transaction has committed.
+ */
+public record RequestRecordedEvent(
+        LocalDate day,
+        Long tourId,
+        TourCategory category,
+        String requestType) {
+
+    public static RequestRecordedEvent of(Booking booking) {
+        Tour tour = booking.getTour();
+        return new RequestRecordedEvent(booking.getCreatedAt().toLocalDate(),
+                tour != null ? tour.getId() : null,
+                tour != null ? tour.getCategory() : null,
+                RequestRollup.RESERVATION);
+    }
+
+    public static RequestRecordedEvent of(ContactMessage contact) {
+        return new RequestRecordedEvent(contact.getCreatedAt().toLocalDate(), null, null, RequestRollup.INFORMATION);
+    }
+}
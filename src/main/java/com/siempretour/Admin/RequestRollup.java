@@ -0,0 +1,46 @@
+package com.siempretour.Admin;
+
+import com.siempretour.Tours.Models.TourCategory;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Daily request counts per (day, tour, category, request type), kept up to date as booking
+ * requests and contact messages come in so the admin dashboard reads O(days) rows instead
+ * of every request. Contact messages have no tour and no category.
+ *
+ * There is no unique key: two first-of-the-day requests racing each other may create two
+ * rows for the same key, which is harmless since every read sums.
+ */
+@Entity
+@Table(name = "request_rollups", indexes = {
+        @Index(name = "idx_request_rollups_day", columnList = "day"),
+        @Index(name = "idx_request_rollups_tour_id", columnList = "tourId")
+})
+@Data
+public class RequestRollup {
+
+    public static final String RESERVATION = "reservation";
+    public static final String INFORMATION = "information";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    private Long tourId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 50)
+    private TourCategory category;
+
+    @Column(nullable = false, length = 20)
+    private String requestType;
+
+    @Column(nullable = false)
+    private long requests;
+}
@@ -0,0 +1,89 @@
+package com.siempretour.Admin;
+
+import com.siempretour.Booking.BookingRepository;
+import com.siempretour.Tours.Models.TourCategory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RequestRollupRepository extends JpaRepository<RequestRollup, Long> {
+
+    // Contact rows have no tour/category, so a tour or category filter leaves only reservations
+    String FILTER = "WHERE (CAST(:startDay AS LocalDate) IS NULL OR r.day >= :startDay) " +
+            "AND (CAST(:endDay AS LocalDate) IS NULL OR r.day <= :endDay) " +
+            "AND (CAST(:tourId AS long) IS NULL OR r.tourId = :tourId) " +
+            "AND (CAST(:category AS string) IS NULL OR r.category = :category) ";
+
+    String RESERVATIONS_ONLY = "AND r.requestType = '" + RequestRollup.RESERVATION + "' ";
+
+    Optional<RequestRollup> findFirstByDayAndTourIdAndCategoryAndRequestType(
+            LocalDate day, Long tourId, TourCategory category, String requestType);
+
+    @Modifying
+    @Query("UPDATE RequestRollup r SET r.requests = r.requests + :delta WHERE r.id = :id")
+    int increment(@Param("id") Long id, @Param("delta") long delta);
+
+    // Keeps the category filter in line with the tour's current category after an edit
+    @Modifying
+    @Query("UPDATE RequestRollup r SET r.category = :category WHERE r.tourId = :tourId")
+    int updateCategory(@Param("tourId") Long tourId, @Param("category") TourCategory category);
+
+    @Query("SELECT r.requestType AS requestType, SUM(r.requests) AS requests FROM RequestRollup r " +
+            FILTER + "GROUP BY r.requestType")
+    List<TypeCount> sumByType(
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay,
+            @Param("tourId") Long tourId,
+            @Param("category") TourCategory category);
+
+    @Query("SELECT r.day AS day, r.requestType AS requestType, SUM(r.requests) AS requests FROM RequestRollup r " +
+            FILTER + "GROUP BY r.day, r.requestType")
+    List<DailyTypeCount> sumByDay(
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay,
+            @Param("tourId") Long tourId,
+            @Param("category") TourCategory category);
+
+    @Query("SELECT t.id AS tourId, t.name AS name, t.category AS category, t.destination AS destination, " +
+            "SUM(r.requests) AS requests FROM RequestRollup r JOIN Tour t ON t.id = r.tourId " +
+            FILTER + RESERVATIONS_ONLY +
+            "GROUP BY t.id, t.name, t.category, t.destination ORDER BY SUM(r.requests) DESC, t.id ASC")
+    List<BookingRepository.TourCount> sumByTour(
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay,
+            @Param("tourId") Long tourId,
+            @Param("category") TourCategory category,
+            Pageable limit);
+
+    @Query("SELECT r.category AS category, SUM(r.requests) AS requests FROM RequestRollup r " +
+            FILTER + RESERVATIONS_ONLY +
+            "AND r.category IS NOT NULL GROUP BY r.category ORDER BY SUM(r.requests) DESC")
+    List<BookingRepository.CategoryCount> sumByCategory(
+            @Param("startDay") LocalDate startDay,
+            @Param("endDay") LocalDate endDay,
+            @Param("tourId") Long tourId,
+            @Param("category") TourCategory category,
+            Pageable limit);
+
+    interface TypeCount {
+        String getRequestType();
+
+        long getRequests();
+    }
+
+    interface DailyTypeCount {
+        LocalDate getDay();
+
+        String getRequestType();
+
+        long getRequests();
+    }
+}
@@ -0,0 +1,121 @@
+package com.siempretour.Admin;
+
+import com.siempretour.Booking.BookingRepository;
+import com.siempretour.Contact.ContactMessageRepository;
+import com.siempretour.Tours.TourChangedEvent;
+import com.siempretour.Tours.TourRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains the request_rollups table. Each recorded request adds one to its (day, tour,
+ * category, type) row after the request's transaction has committed, in a transaction of
+ * its own so a failing rollup write never fails the booking or contact form. The table is
+ * backfilled from the bookings and contact messages at startup when it is empty; after the
+ * rollups have been disabled for a while, rebuild them from the admin endpoint.
+ */
+@Slf4j
+@Service
+public class RequestRollupService {
+
+    private final RequestRollupRepository rollupRepository;
+    private final BookingRepository bookingRepository;
+    private final ContactMessageRepository contactMessageRepository;
+    private final TourRepository tourRepository;
+    private final TransactionTemplate requiresNew;
+    private final boolean enabled;
+
+    public RequestRollupService(
+            RequestRollupRepository rollupRepository,
+            BookingRepository bookingRepository,
+            ContactMessageRepository contactMessageRepository,
+            TourRepository tourRepository,
+            PlatformTransactionManager transactionManager,
+            @Value("${admin.analytics.rollups.enabled:true}") boolean enabled) {
+        this.rollupRepository = rollupRepository;
+        this.bookingRepository = bookingRepository;
+        this.contactMessageRepository = contactMessageRepository;
+        this.tourRepository = tourRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (enabled && rollupRepository.count() == 0) {
+            requiresNew.executeWithoutResult(status -> rebuild());
+        }
+    }
+
+    /** Recomputes every rollup row from the source tables. */
+    @Transactional
+    public int rebuild() {
+        List<RequestRollup> rows = new ArrayList<>();
+        bookingRepository.countRequestsPerDayAndTour().forEach(row ->
+                rows.add(rollup(new RequestRecordedEvent(row.getDay(), row.getTourId(), row.getCategory(),
+                        RequestRollup.RESERVATION), row.getRequests())));
+        contactMessageRepository.countAdminRequestsPerDay(null, null).forEach(row ->
+                rows.add(rollup(new RequestRecordedEvent(row.getDay(), null, null,
+                        RequestRollup.INFORMATION), row.getRequests())));
+
+        rollupRepository.deleteAllInBatch();
+        rollupRepository.saveAll(rows);
+        log.info("Rebuilt {} request rollup rows", rows.size());
+        return rows.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRequestRecorded(RequestRecordedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            requiresNew.executeWithoutResult(status -> record(event));
+        } catch (RuntimeException e) {
+            log.warn("Could not update request rollup for {}: {}", event, e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        if (!enabled || event.kind() != TourChangedEvent.Kind.UPDATED) {
+            return;
+        }
+        requiresNew.executeWithoutResult(status -> tourRepository.findById(event.tourId())
+                .ifPresent(tour -> rollupRepository.updateCategory(tour.getId(), tour.getCategory())));
+    }
+
+    private void record(RequestRecordedEvent event) {
+        rollupRepository.findFirstByDayAndTourIdAndCategoryAndRequestType(
+                        event.day(), event.tourId(), event.category(), event.requestType())
+                .ifPresentOrElse(
+                        row -> rollupRepository.increment(row.getId(), 1),
+                        () -> rollupRepository.save(rollup(event, 1)));
+    }
+
+    private static RequestRollup rollup(RequestRecordedEvent event, long requests) {
+        RequestRollup rollup = new RequestRollup();
+        rollup.setDay(event.day());
+        rollup.setTourId(event.tourId());
+        rollup.setCategory(event.category());
+        rollup.setRequestType(event.requestType());
+        rollup.setRequests(requests);
+        return rollup;
+    }
+}
@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_user_created", columnList = "userId, createdAt"),
+        @Index(name = "idx_bookings_tour_created", columnList = "tour_id, createdAt"),
+        @Index(name = "idx_bookings_status_created", columnList = "status, createdAt"),
+        @Index(name = "idx_bookings_created", columnList = "createdAt")
+})
 @Data
 public class Booking {
 
@@ -4,6 +4,8 @@ import com.siempretour.Booking.Dto.BookingApprovalDto;
 import com.siempretour.Booking.Dto.BookingRejectionDto;
 import com.siempretour.Booking.Dto.BookingRequestDto;
 import com.siempretour.Booking.Dto.BookingResponseDto;
+import com.siempretour.Booking.Dto.SeatAvailabilityDto;
+import com.siempretour.Filter.PagedResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,6 +21,9 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
 
+    private static final String PAGINATION_OFFSET = "offset";
+    private static final String PAGINATION_CURSOR = "cursor";
+
     private final BookingService bookingService;
 
     @PostMapping
@@ -53,12 +58,65 @@ public class BookingController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/availability/{tourId}")
+    public ResponseEntity<SeatAvailabilityDto> getAvailability(@PathVariable Long tourId) {
+        return ResponseEntity.ok(bookingService.getAvailability(tourId));
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<BookingResponseDto> getBookingById(@PathVariable Long bookingId) {
         BookingResponseDto response = bookingService.getBookingById(bookingId);
         return ResponseEntity.ok(response);
     }
 
+    // ==================== Paged lists ====================
+    // pagination=offset (default) returns page/total counts; pagination=cursor returns keyset
+    // pages: pass the previous response's nextCursor as cursor.
+
+    @GetMapping("/me/paged")
+    public ResponseEntity<PagedResponse<BookingResponseDto>> getMyBookingsPaged(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = PAGINATION_OFFSET) String pagination,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(bookingService.getMyBookingsPaged(page, size, cursor, isCursorPagination(pagination)));
+    }
+
+    @GetMapping("/pending/paged")
+    public ResponseEntity<PagedResponse<BookingResponseDto>> getPendingBookingsPaged(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = PAGINATION_OFFSET) String pagination,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(bookingService.getPendingBookingsPaged(page, size, cursor, isCursorPagination(pagination)));
+    }
+
+    @GetMapping("/tour/{tourId}/paged")
+    public ResponseEntity<PagedResponse<BookingResponseDto>> getBookingsByTourPaged(
+            @PathVariable Long tourId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = PAGINATION_OFFSET) String pagination,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(bookingService.getBookingsByTourPaged(tourId, page, size, cursor,
+                isCursorPagination(pagination)));
+    }
+
+    @GetMapping("/paged")
+    public ResponseEntity<PagedResponse<BookingResponseDto>> getAllBookingsPaged(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = PAGINATION_OFFSET) String pagination,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(bookingService.getAllBookingsPaged(page, size, cursor, isCursorPagination(pagination)));
+    }
+
+    private static boolean isCursorPagination(String pagination) {
+        return PAGINATION_CURSOR.equalsIgnoreCase(pagination);
+    }
+
+    // ==================== Lists (capped, see BookingService.LEGACY_LIST_LIMIT) ====================
+
     @GetMapping("/me")
     public ResponseEntity<List<BookingResponseDto>> getMyBookings() {
         List<BookingResponseDto> bookings = bookingService.getMyBookings();
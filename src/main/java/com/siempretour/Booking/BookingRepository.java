@@ -1,18 +1,36 @@
 package com.siempretour.Booking;
 
+import com.siempretour.Booking.Dto.BookingResponseDto;
+import com.siempretour.Tours.Models.TourCategory;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
 
+    // Flat BookingResponseDto rows with the tour name joined in, so listing N bookings is
+    // one query instead of 1 + N lazy tour loads.
+    String RESPONSE_PROJECTION = "SELECT new com.siempretour.Booking.Dto.BookingResponseDto(" +
+            "b.id, t.id, t.name, b.userId, b.userEmail, b.userName, b.userPhone, b.numberOfPeople, " +
+            "b.status, b.approvedBy, b.approvedAt, b.rejectedBy, b.rejectedAt, b.createdAt, b.updatedAt) " +
+            "FROM Booking b JOIN b.tour t ";
+
+    String OWNER_AND_TOUR_FILTER = "WHERE (CAST(:userId AS long) IS NULL OR b.userId = :userId) " +
+            "AND (CAST(:tourId AS long) IS NULL OR t.id = :tourId) ";
+
     List<Booking> findByUserId(Long userId);
 
     List<Booking> findByTourId(Long tourId);
@@ -25,16 +43,187 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
 
     List<Booking> findByStatusOrderByCreatedAtAsc(BookingStatus status);
 
-    @Query("SELECT b FROM Booking b WHERE (CAST(:startDate AS timestamp) IS NULL OR b.createdAt >= :startDate) " +
+    // ==================== Response projections (newest first) ====================
+
+    @Query(value = RESPONSE_PROJECTION + OWNER_AND_TOUR_FILTER + "ORDER BY b.createdAt DESC, b.id DESC",
+            countQuery = "SELECT COUNT(b) FROM Booking b JOIN b.tour t " + OWNER_AND_TOUR_FILTER)
+    Page<BookingResponseDto> findResponses(
+            @Param("userId") Long userId,
+            @Param("tourId") Long tourId,
+            Pageable pageable);
+
+    /** Keyset variant: rows strictly after (createdAt, id) in newest-first order; no count query. */
+    @Query(RESPONSE_PROJECTION + OWNER_AND_TOUR_FILTER +
+            "AND (CAST(:createdAt AS timestamp) IS NULL OR b.createdAt < :createdAt " +
+            "     OR (b.createdAt = :createdAt AND b.id < :id)) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<BookingResponseDto> findResponsesAfter(
+            @Param("userId") Long userId,
+            @Param("tourId") Long tourId,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable limit);
+
+    // ==================== Response projections by status (oldest first) ====================
+
+    @Query(value = RESPONSE_PROJECTION + "WHERE b.status = :status ORDER BY b.createdAt ASC, b.id ASC",
+            countQuery = "SELECT COUNT(b) FROM Booking b WHERE b.status = :status")
+    Page<BookingResponseDto> findResponsesByStatus(@Param("status") BookingStatus status, Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION + "WHERE b.status = :status " +
+            "AND (CAST(:createdAt AS timestamp) IS NULL OR b.createdAt > :createdAt " +
+            "     OR (b.createdAt = :createdAt AND b.id > :id)) " +
+            "ORDER BY b.createdAt ASC, b.id ASC")
+    List<BookingResponseDto> findResponsesByStatusAfter(
+            @Param("status") BookingStatus status,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable limit);
+
+    /** PENDING -> APPROVED only if still pending; 0 means another admin got there first. */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :approved, b.approvedBy = :adminId, b.approvedAt = :now, " +
+            "b.adminNote = :adminNote, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.status = :pending")
+    int approveIfPending(@Param("id") Long id,
+                         @Param("adminId") Long adminId,
+                         @Param("adminNote") String adminNote,
+                         @Param("now") LocalDateTime now,
+                         @Param("pending") BookingStatus pending,
+                         @Param("approved") BookingStatus approved);
+
+    /** PENDING -> REJECTED only if still pending, so a reject can never overwrite a committed approval. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :rejected, b.rejectedBy = :adminId, b.rejectedAt = :now, " +
+            "b.adminNote = :reason, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.status = :pending")
+    int rejectIfPending(@Param("id") Long id,
+                        @Param("adminId") Long adminId,
+                        @Param("reason") String reason,
+                        @Param("now") LocalDateTime now,
+                        @Param("pending") BookingStatus pending,
+                        @Param("rejected") BookingStatus rejected);
+
+    /** The owner's PENDING -> CANCELLED, only if still pending; 0 means an admin decided first. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Booking b SET b.status = :cancelled, b.updatedAt = :now " +
+            "WHERE b.id = :id AND b.userId = :userId AND b.status = :pending")
+    int cancelIfPending(@Param("id") Long id,
+                        @Param("userId") Long userId,
+                        @Param("now") LocalDateTime now,
+                        @Param("pending") BookingStatus pending,
+                        @Param("cancelled") BookingStatus cancelled);
+
+    // ==================== Admin dashboard aggregates ====================
+    // Counted and grouped in the database: the result size depends on the number of
+    // days/tours/categories, not on the number of bookings.
+
+    String ADMIN_FILTER = "WHERE (CAST(:startDate AS timestamp) IS NULL OR b.createdAt >= :startDate) " +
             "AND (CAST(:endDate AS timestamp) IS NULL OR b.createdAt <= :endDate) " +
-            "AND (CAST(:tourId AS long) IS NULL OR b.tour.id = :tourId) " +
-            "AND (CAST(:category AS string) IS NULL OR b.tour.category = :category) " +
-            "ORDER BY b.createdAt DESC")
-    List<Booking> findAdminRequests(
+            "AND (CAST(:tourId AS long) IS NULL OR t.id = :tourId) " +
+            "AND (CAST(:category AS string) IS NULL OR t.category = :category) ";
+
+    @Query("SELECT COUNT(b) FROM Booking b JOIN b.tour t " + ADMIN_FILTER)
+    long countAdminRequests(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("tourId") Long tourId,
+            @Param("category") TourCategory category);
+
+    @Query("SELECT CAST(b.createdAt AS LocalDate) AS day, COUNT(b) AS requests FROM Booking b JOIN b.tour t " +
+            ADMIN_FILTER + "GROUP BY CAST(b.createdAt AS LocalDate)")
+    List<DailyCount> countAdminRequestsPerDay(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("tourId") Long tourId,
+            @Param("category") TourCategory category);
+
+    @Query("SELECT t.id AS tourId, t.name AS name, t.category AS category, t.destination AS destination, " +
+            "COUNT(b) AS requests FROM Booking b JOIN b.tour t " + ADMIN_FILTER +
+            "GROUP BY t.id, t.name, t.category, t.destination ORDER BY COUNT(b) DESC, t.id ASC")
+    List<TourCount> countAdminRequestsPerTour(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("tourId") Long tourId,
+            @Param("category") TourCategory category,
+            Pageable limit);
+
+    @Query("SELECT t.category AS category, COUNT(b) AS requests FROM Booking b JOIN b.tour t " + ADMIN_FILTER +
+            "AND t.category IS NOT NULL GROUP BY t.category ORDER BY COUNT(b) DESC")
+    List<CategoryCount> countAdminRequestsPerCategory(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("tourId") Long tourId,
+            @Param("category") TourCategory category,
+            Pageable limit);
+
+    // Full history per day and tour, used to backfill the analytics rollups
+    @Query("SELECT CAST(b.createdAt AS LocalDate) AS day, t.id AS tourId, t.category AS category, COUNT(b) AS requests " +
+            "FROM Booking b JOIN b.tour t GROUP BY CAST(b.createdAt AS LocalDate), t.id, t.category")
+    List<TourDailyCount> countRequestsPerDayAndTour();
+
+    interface TourDailyCount {
+        LocalDate getDay();
+
+        Long getTourId();
+
+        TourCategory getCategory();
+
+        long getRequests();
+    }
+
+    /** Newest-first admin requests strictly after (createdAt, id), tour fetched; feeds the merged admin inbox. */
+    @Query("SELECT b FROM Booking b JOIN FETCH b.tour t " + ADMIN_FILTER +
+            "AND (CAST(:createdAt AS timestamp) IS NULL OR b.createdAt < :createdAt " +
+            "     OR (b.createdAt = :createdAt AND b.id < :id)) " +
+            "ORDER BY b.createdAt DESC, b.id DESC")
+    List<Booking> findAdminRequestsAfter(
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate,
             @Param("tourId") Long tourId,
-            @Param("category") com.siempretour.Tours.Models.TourCategory category);
+            @Param("category") TourCategory category,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable limit);
+
+    /**
+     * Forward-only stream for exports, newest first. Must be consumed inside a read-only
+     * transaction; the fetch size keeps the JDBC driver from buffering the whole result.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b JOIN FETCH b.tour t " + ADMIN_FILTER + "ORDER BY b.createdAt DESC, b.id DESC")
+    Stream<Booking> streamAdminRequests(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("tourId") Long tourId,
+            @Param("category") TourCategory category);
+
+    interface DailyCount {
+        LocalDate getDay();
+
+        long getRequests();
+    }
+
+    interface TourCount {
+        Long getTourId();
+
+        String getName();
+
+        TourCategory getCategory();
+
+        String getDestination();
+
+        long getRequests();
+    }
+
+    interface CategoryCount {
+        TourCategory getCategory();
+
+        long getRequests();
+    }
 
     @Query("SELECT b FROM Booking b WHERE (CAST(:startDate AS timestamp) IS NULL OR b.createdAt >= :startDate) " +
             "AND (CAST(:endDate AS timestamp) IS NULL OR b.createdAt <= :endDate) " +
@@ -1,34 +1,50 @@
 package com.siempretour.Booking;
 
+import com.siempretour.Admin.RequestRecordedEvent;
 import com.siempretour.Booking.Dto.BookingApprovalDto;
 import com.siempretour.Booking.Dto.BookingRejectionDto;
 import com.siempretour.Booking.Dto.BookingRequestDto;
 import com.siempretour.Booking.Dto.BookingResponseDto;
+import com.siempretour.Booking.Dto.SeatAvailabilityDto;
 import com.siempretour.Exceptions.ErrorCodes;
 import com.siempretour.Exceptions.GlobalException;
+import com.siempretour.Filter.KeysetCursor;
+import com.siempretour.Filter.PagedResponse;
+import com.siempretour.Filter.PaginationConstants;
 import com.siempretour.Security.JwtHelper;
 import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourStatus;
+import com.siempretour.Tours.TourChangedEvent;
 import com.siempretour.Tours.TourRepository;
 import com.siempretour.User.UserEntity;
 import com.siempretour.User.UserEntityRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BookingService {
 
+    // Upper bound for the legacy (unpaged) list endpoints; use the /paged variants for more
+    static final int LEGACY_LIST_LIMIT = 500;
+    private static final String CURSOR_KEY = "createdAt";
+
     private final BookingRepository bookingRepository;
     private final TourRepository tourRepository;
     private final JwtHelper jwtHelper;
     private final UserEntityRepository userEntityRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SeatHoldService seatHoldService;
 
     @Transactional
     public BookingResponseDto createBookingRequest(BookingRequestDto dto) {
@@ -53,11 +69,6 @@ public class BookingService {
             throw new GlobalException(ErrorCodes.TOUR_NOT_BOOKABLE);
         }
 
-        // Check if enough seats available
-        if (tour.getAvailableSeats() < dto.getNumberOfPeople()) {
-            throw new GlobalException(ErrorCodes.TOUR_NOT_BOOKABLE);
-        }
-
         Booking booking = new Booking();
         booking.setTour(tour);
         booking.setUserId(userId);
@@ -69,6 +80,10 @@ public class BookingService {
         booking.setStatus(BookingStatus.PENDING);
 
         Booking savedBooking = bookingRepository.save(booking);
+
+        // Reserve the seats while the request is pending; fails if held + requested > available
+        seatHoldService.hold(savedBooking, tour);
+        eventPublisher.publishEvent(RequestRecordedEvent.of(savedBooking));
         log.info("Booking request created: {} for tour: {} by user: {}",
                 savedBooking.getId(), tour.getId(), userId);
 
@@ -127,8 +142,12 @@ public class BookingService {
         tour.setDepartureCity("Istanbul");
         tour.setIsActive(true);
         tour.setStatus(com.siempretour.Tours.Models.TourStatus.PUBLISHED);
+        tour.refreshSearchDocument();
 
-        return tourRepository.save(tour);
+        Tour saved = tourRepository.save(tour);
+        // Same as TourService.createTour: caches, indexes and the catalogue version follow new tours
+        eventPublisher.publishEvent(TourChangedEvent.of(saved, TourChangedEvent.Kind.CREATED));
+        return saved;
     }
 
     @Transactional
@@ -148,25 +167,27 @@ public class BookingService {
         }
 
         Tour tour = booking.getTour();
-
-        // Check if still enough seats
-        if (tour.getAvailableSeats() < booking.getNumberOfPeople()) {
+        TourChangedEvent seatsChanged = TourChangedEvent.of(tour, TourChangedEvent.Kind.SEATS);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Both steps are conditional updates, so concurrent approvals can neither approve
+        // the same booking twice nor take more seats than are left. Either failing rolls
+        // back the whole approval.
+        if (bookingRepository.approveIfPending(bookingId, adminId, dto.getAdminNote(), now,
+                BookingStatus.PENDING, BookingStatus.APPROVED) == 0) {
+            throw new GlobalException(ErrorCodes.CONCURRENT_MODIFICATION);
+        }
+        if (tourRepository.takeSeats(tour.getId(), booking.getNumberOfPeople(), TourStatus.SOLD_OUT, now) == 0) {
             throw new GlobalException(ErrorCodes.TOUR_NOT_BOOKABLE);
         }
+        // The seats are taken for good now, so the hold is no longer needed
+        seatHoldService.release(bookingId);
+        eventPublisher.publishEvent(seatsChanged);
 
-        // Decrease available seats
-        tour.decrementAvailableSeats(booking.getNumberOfPeople());
-        tourRepository.save(tour);
-
-        // Update booking
-        booking.setStatus(BookingStatus.APPROVED);
-        booking.setApprovedBy(adminId);
-        booking.setApprovedAt(LocalDateTime.now());
-        booking.setAdminNote(dto.getAdminNote());
-
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new GlobalException(ErrorCodes.RESERVATION_COULD_NOT_BE_CREATED));
         log.info("Booking approved: {} for tour: {} by admin: {}",
-                bookingId, tour.getId(), adminId);
+                bookingId, seatsChanged.tourId(), adminId);
 
         return mapToResponseDto(updatedBooking);
     }
@@ -187,14 +208,19 @@ public class BookingService {
             throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
         }
 
-        booking.setStatus(BookingStatus.REJECTED);
-        booking.setRejectedBy(adminId);
-        booking.setRejectedAt(LocalDateTime.now());
-        booking.setAdminNote(dto.getRejectionReason());
+        Long tourId = booking.getTour().getId();
+        // Conditional like approveIfPending: an approval that committed after the check above
+        // must not be overwritten (its seats are already taken)
+        if (bookingRepository.rejectIfPending(bookingId, adminId, dto.getRejectionReason(), LocalDateTime.now(),
+                BookingStatus.PENDING, BookingStatus.REJECTED) == 0) {
+            throw new GlobalException(ErrorCodes.CONCURRENT_MODIFICATION);
+        }
+        seatHoldService.release(bookingId);
 
-        Booking updatedBooking = bookingRepository.save(booking);
+        Booking updatedBooking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new GlobalException(ErrorCodes.RESERVATION_COULD_NOT_BE_CREATED));
         log.info("Booking rejected: {} for tour: {} by admin: {}",
-                bookingId, booking.getTour().getId(), adminId);
+                bookingId, tourId, adminId);
 
         return mapToResponseDto(updatedBooking);
     }
@@ -216,14 +242,27 @@ public class BookingService {
             throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
         }
 
-        booking.setStatus(BookingStatus.CANCELLED);
-        Booking updatedBooking = bookingRepository.save(booking);
+        if (bookingRepository.cancelIfPending(bookingId, userId, LocalDateTime.now(),
+                BookingStatus.PENDING, BookingStatus.CANCELLED) == 0) {
+            throw new GlobalException(ErrorCodes.CONCURRENT_MODIFICATION);
+        }
+        seatHoldService.release(bookingId);
+
+        Booking updatedBooking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new GlobalException(ErrorCodes.RESERVATION_COULD_NOT_BE_CREATED));
 
         log.info("Booking cancelled: {} by user: {}", bookingId, userId);
 
         return mapToResponseDto(updatedBooking);
     }
 
+    public SeatAvailabilityDto getAvailability(Long tourId) {
+        Tour tour = tourRepository.findById(tourId)
+                .orElseThrow(() -> new GlobalException(ErrorCodes.TOUR_COULD_NOT_BE_FOUND));
+        return new SeatAvailabilityDto(tour.getId(), tour.getAvailableSeats(),
+                seatHoldService.heldSeats(tourId), seatHoldService.seatsLeft(tour));
+    }
+
     public BookingResponseDto getBookingById(Long bookingId) {
         Long userId = jwtHelper.getCurrentUserId(); // String değil Long!
         boolean isAdmin = jwtHelper.hasRole("ADMIN");
@@ -239,11 +278,11 @@ public class BookingService {
         return mapToResponseDto(booking);
     }
 
+    // ==================== Lists (capped at LEGACY_LIST_LIMIT, newest first) ====================
+
     public List<BookingResponseDto> getMyBookings() {
         Long userId = jwtHelper.getCurrentUserId(); // String değil Long!
-        return bookingRepository.findByUserId(userId).stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return bookingRepository.findResponsesAfter(userId, null, null, null, legacyLimit());
     }
 
     public List<BookingResponseDto> getPendingBookings() {
@@ -252,9 +291,8 @@ public class BookingService {
             throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
         }
 
-        return bookingRepository.findByStatusOrderByCreatedAtAsc(BookingStatus.PENDING).stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        // Oldest first, the order admins work through them
+        return bookingRepository.findResponsesByStatusAfter(BookingStatus.PENDING, null, null, legacyLimit());
     }
 
     public List<BookingResponseDto> getBookingsByTour(Long tourId) {
@@ -263,9 +301,7 @@ public class BookingService {
             throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
         }
 
-        return bookingRepository.findByTourId(tourId).stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return bookingRepository.findResponsesAfter(null, tourId, null, null, legacyLimit());
     }
 
     public List<BookingResponseDto> getAllBookings() {
@@ -274,9 +310,113 @@ public class BookingService {
             throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
         }
 
-        return bookingRepository.findAll().stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return bookingRepository.findResponsesAfter(null, null, null, null, legacyLimit());
+    }
+
+    // ==================== Paged (offset or keyset) ====================
+
+    public PagedResponse<BookingResponseDto> getMyBookingsPaged(int page, int size, String cursor, boolean keyset) {
+        Long userId = jwtHelper.getCurrentUserId();
+        return pagedResponses(userId, null, page, size, cursor, keyset);
+    }
+
+    public PagedResponse<BookingResponseDto> getBookingsByTourPaged(Long tourId, int page, int size,
+            String cursor, boolean keyset) {
+        // Admin only
+        if (!jwtHelper.hasRole("ADMIN")) {
+            throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
+        }
+
+        return pagedResponses(null, tourId, page, size, cursor, keyset);
+    }
+
+    public PagedResponse<BookingResponseDto> getAllBookingsPaged(int page, int size, String cursor, boolean keyset) {
+        // Admin only
+        if (!jwtHelper.hasRole("ADMIN")) {
+            throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
+        }
+
+        return pagedResponses(null, null, page, size, cursor, keyset);
+    }
+
+    public PagedResponse<BookingResponseDto> getPendingBookingsPaged(int page, int size, String cursor, boolean keyset) {
+        // Admin only
+        if (!jwtHelper.hasRole("ADMIN")) {
+            throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
+        }
+
+        int pageSize = PaginationConstants.normalizePageSize(size);
+        if (!keyset) {
+            return toPagedResponse(bookingRepository.findResponsesByStatus(BookingStatus.PENDING,
+                    PageRequest.of(PaginationConstants.normalizePageNumber(page), pageSize)));
+        }
+        KeysetCursor after = decodeCursor(cursor);
+        List<BookingResponseDto> rows = bookingRepository.findResponsesByStatusAfter(BookingStatus.PENDING,
+                after != null ? after.value() : null, after != null ? after.id() : null,
+                PageRequest.of(0, pageSize + 1));
+        return toCursorResponse(rows, pageSize, after == null);
+    }
+
+    private PagedResponse<BookingResponseDto> pagedResponses(Long userId, Long tourId, int page, int size,
+            String cursor, boolean keyset) {
+        int pageSize = PaginationConstants.normalizePageSize(size);
+        if (!keyset) {
+            return toPagedResponse(bookingRepository.findResponses(userId, tourId,
+                    PageRequest.of(PaginationConstants.normalizePageNumber(page), pageSize)));
+        }
+        KeysetCursor after = decodeCursor(cursor);
+        List<BookingResponseDto> rows = bookingRepository.findResponsesAfter(userId, tourId,
+                after != null ? after.value() : null, after != null ? after.id() : null,
+                PageRequest.of(0, pageSize + 1));
+        return toCursorResponse(rows, pageSize, after == null);
+    }
+
+    private static KeysetCursor decodeCursor(String token) {
+        KeysetCursor cursor = KeysetCursor.decode(token);
+        if (cursor != null && !CURSOR_KEY.equals(cursor.key())) {
+            throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
+        }
+        return cursor;
+    }
+
+    private static Pageable legacyLimit() {
+        return PageRequest.of(0, LEGACY_LIST_LIMIT);
+    }
+
+    private static PagedResponse<BookingResponseDto> toPagedResponse(Page<BookingResponseDto> page) {
+        return PagedResponse.<BookingResponseDto>builder()
+                .content(page.getContent())
+                .page(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .first(page.isFirst())
+                .last(page.isLast())
+                .hasNext(page.hasNext())
+                .hasPrevious(page.hasPrevious())
+                .build();
+    }
+
+    /** rows holds up to size + 1 entries; the extra one only signals that a next page exists. */
+    private static PagedResponse<BookingResponseDto> toCursorResponse(List<BookingResponseDto> rows, int size,
+            boolean first) {
+        boolean hasNext = rows.size() > size;
+        List<BookingResponseDto> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            BookingResponseDto last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(CURSOR_KEY, last.getCreatedAt(), last.getId()).encode();
+        }
+        return PagedResponse.<BookingResponseDto>builder()
+                .content(content)
+                .page(0)
+                .size(size)
+                .first(first)
+                .last(!hasNext)
+                .hasNext(hasNext)
+                .hasPrevious(!first)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     private BookingResponseDto mapToResponseDto(Booking booking) {
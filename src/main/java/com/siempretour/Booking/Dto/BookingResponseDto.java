@@ -1,11 +1,16 @@
 package com.siempretour.Booking.Dto;
 
 import com.siempretour.Booking.BookingStatus;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
+// All-args constructor backs the JPQL constructor projections in BookingRepository (keep field order)
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class BookingResponseDto {
     private Long id;
     private Long tourId;
@@ -0,0 +1,15 @@
+package com.siempretour.Booking.Dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatAvailabilityDto {
+    private Long tourId;
+    private Integer availableSeats; // Seats not taken by approved bookings
+    private Integer heldSeats;      // Seats held by pending booking requests
+    private Integer seatsLeft;      // What a new booking request can still ask for
+}
@@ -0,0 +1,44 @@
+package com.siempretour.Booking;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Seats reserved for a PENDING booking until it is approved, rejected or cancelled, or
+ * until the hold expires. Held seats are subtracted from a tour's availableSeats when new
+ * booking requests are checked, see SeatHoldService.
+ */
+@Entity
+@Table(name = "seat_holds", indexes = {
+        @Index(name = "idx_seat_holds_expires_at", columnList = "expiresAt"),
+        @Index(name = "idx_seat_holds_tour_id", columnList = "tourId")
+})
+@Data
+public class SeatHold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private Long bookingId;
+
+    @Column(nullable = false)
+    private Long tourId;
+
+    @Column(nullable = false)
+    private Integer seats;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,38 @@
+package com.siempretour.Booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SeatHoldRepository extends JpaRepository<SeatHold, Long> {
+
+    Optional<SeatHold> findByBookingId(Long bookingId);
+
+    List<SeatHold> findByExpiresAtBeforeOrderByExpiresAtAsc(LocalDateTime now, Pageable pageable);
+
+    // Row count tells the caller whether it (and not a concurrent release/sweep) removed the hold
+    @Modifying
+    @Query("DELETE FROM SeatHold h WHERE h.id = :id")
+    int deleteHold(@Param("id") Long id);
+
+    /**
+     * Held seats per tour, used once at startup to seed the in-memory counters. Includes
+     * expired holds not swept yet, since the sweeper subtracts them when it deletes them.
+     */
+    @Query("SELECT h.tourId AS tourId, SUM(h.seats) AS seats FROM SeatHold h GROUP BY h.tourId")
+    List<HeldSeats> sumHoldsByTour();
+
+    interface HeldSeats {
+        Long getTourId();
+
+        Long getSeats();
+    }
+}
@@ -0,0 +1,140 @@
+package com.siempretour.Booking;
+
+import com.siempretour.Exceptions.ErrorCodes;
+import com.siempretour.Exceptions.GlobalException;
+import com.siempretour.Tours.Models.Tour;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Seat holds for pending booking requests.
+ *
+ * The number of held seats per tour is kept in an in-memory counter so "seats left"
+ * (availableSeats - held) never needs an aggregate query. The counter is seeded from the
+ * seat_holds table at startup and then follows the table: a hold is counted before its
+ * row is written (compare-and-set, so two requests cannot both take the last seats) and
+ * given back if the transaction rolls back; releases and expiries are subtracted once
+ * their delete has committed. Holds count until the sweeper removes them, i.e. up to one
+ * sweep interval past their expiry. Counters are per instance, so this assumes a single
+ * application instance writing bookings.
+ */
+@Slf4j
+@Service
+public class SeatHoldService {
+
+    private final SeatHoldRepository seatHoldRepository;
+    private final Duration ttl;
+    private final ConcurrentHashMap<Long, AtomicInteger> heldByTour = new ConcurrentHashMap<>();
+
+    public SeatHoldService(
+            SeatHoldRepository seatHoldRepository,
+            @Value("${booking.hold.ttl:PT30M}") Duration ttl) {
+        this.seatHoldRepository = seatHoldRepository;
+        this.ttl = ttl;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCounters() {
+        List<SeatHoldRepository.HeldSeats> rows = seatHoldRepository.sumHoldsByTour();
+        rows.forEach(row -> counter(row.getTourId()).set(row.getSeats().intValue()));
+        log.info("Loaded seat holds for {} tours", rows.size());
+    }
+
+    public int heldSeats(Long tourId) {
+        AtomicInteger held = heldByTour.get(tourId);
+        return held != null ? held.get() : 0;
+    }
+
+    public int seatsLeft(Tour tour) {
+        int available = tour.getAvailableSeats() != null ? tour.getAvailableSeats() : 0;
+        return Math.max(0, available - heldSeats(tour.getId()));
+    }
+
+    /** Holds the booking's seats or throws TOUR_NOT_BOOKABLE. Call inside the booking transaction. */
+    @Transactional
+    public SeatHold hold(Booking booking, Tour tour) {
+        int seats = booking.getNumberOfPeople();
+        int available = tour.getAvailableSeats() != null ? tour.getAvailableSeats() : 0;
+        AtomicInteger held = counter(tour.getId());
+        int current;
+        do {
+            current = held.get();
+            if (available - current < seats) {
+                throw new GlobalException(ErrorCodes.TOUR_NOT_BOOKABLE);
+            }
+        } while (!held.compareAndSet(current, current + seats));
+        afterRollback(() -> held.addAndGet(-seats));
+
+        SeatHold hold = new SeatHold();
+        hold.setBookingId(booking.getId());
+        hold.setTourId(tour.getId());
+        hold.setSeats(seats);
+        hold.setExpiresAt(LocalDateTime.now().plus(ttl));
+        return seatHoldRepository.save(hold);
+    }
+
+    /** Drops the booking's hold, if it still has one (approval converts it, reject/cancel release it). */
+    @Transactional
+    public void release(Long bookingId) {
+        seatHoldRepository.findByBookingId(bookingId).ifPresent(this::remove);
+    }
+
+    /** Removes up to batchSize expired holds; returns how many were found. */
+    @Transactional
+    public int expireBatch(LocalDateTime now, int batchSize) {
+        List<SeatHold> expired = seatHoldRepository.findByExpiresAtBeforeOrderByExpiresAtAsc(
+                now, PageRequest.of(0, batchSize));
+        expired.forEach(this::remove);
+        return expired.size();
+    }
+
+    private void remove(SeatHold hold) {
+        if (seatHoldRepository.deleteHold(hold.getId()) == 1) {
+            afterCommit(() -> counter(hold.getTourId()).addAndGet(-hold.getSeats()));
+        }
+    }
+
+    private AtomicInteger counter(Long tourId) {
+        return heldByTour.computeIfAbsent(tourId, id -> new AtomicInteger());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package com.siempretour.Booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Expires stale seat holds. Each batch runs in its own transaction so a large backlog
+ * never turns into one long-running delete.
+ */
+@Slf4j
+@Component
+public class SeatHoldSweeper {
+
+    private final SeatHoldService seatHoldService;
+    private final int batchSize;
+
+    public SeatHoldSweeper(
+            SeatHoldService seatHoldService,
+            @Value("${booking.hold.sweep-batch-size:200}") int batchSize) {
+        this.seatHoldService = seatHoldService;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.hold.sweep-interval:PT1M}")
+    public void expireHolds() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int batch;
+        do {
+            batch = seatHoldService.expireBatch(now, batchSize);
+            total += batch;
+        } while (batch == batchSize);
+
+        if (total > 0) {
+            log.info("Expired {} seat holds", total);
+        }
+    }
+}
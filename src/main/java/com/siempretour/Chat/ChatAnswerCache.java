@@ -0,0 +1,93 @@
+package com.siempretour.Chat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.siempretour.Filter.TextFolding;
+import com.siempretour.Tours.CatalogueVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Exact-match answer cache for first-turn chat questions (no usable history), so a repeated
+ * "Japonya turlarınız var mı?" is answered without calling OpenAI. Keys are the
+ * {@link TextFolding folded} message, the reply language and the catalogue version at the
+ * time the question was asked, so any catalogue change makes older answers unreachable;
+ * bounded size and TTL drop them.
+ *
+ * Off unless chat.answer-cache.enabled is set. Metrics: cache.* with cache=chatAnswer,
+ * chat.answer_cache.hit_ratio, and chat.answer_cache.tokens_saved (the OpenAI usage the
+ * cached answer cost originally, counted again on every hit).
+ */
+@Component
+public class ChatAnswerCache {
+
+    private final boolean enabled;
+    private final CatalogueVersion catalogueVersion;
+    private final Cache<Key, Answer> cache;
+    private final Counter tokensSaved;
+
+    public ChatAnswerCache(
+            MeterRegistry meterRegistry,
+            CatalogueVersion catalogueVersion,
+            @Value("${chat.answer-cache.enabled:false}") boolean enabled,
+            @Value("${chat.answer-cache.max-entries:1000}") long maxEntries,
+            @Value("${chat.answer-cache.ttl:PT1H}") Duration ttl) {
+        this.enabled = enabled;
+        this.catalogueVersion = catalogueVersion;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "chatAnswer");
+        Gauge.builder("chat.answer_cache.hit_ratio", cache, c -> c.stats().hitRate())
+                .description("Share of first-turn chat questions answered from the cache")
+                .register(meterRegistry);
+        this.tokensSaved = Counter.builder("chat.answer_cache.tokens_saved")
+                .description("Estimated OpenAI tokens not spent thanks to cached answers")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Key for a first-turn conversation (just the system prompt and the question); null for
+     * follow-up turns or when the cache is off. Take it before calling OpenAI.
+     */
+    Key key(List<Map<String, Object>> messages, String message, String language) {
+        if (!enabled || messages.size() != 2) {
+            return null;
+        }
+        return new Key(TextFolding.fold(message), language, catalogueVersion.current());
+    }
+
+    String get(Key key) {
+        if (key == null) {
+            return null;
+        }
+        Answer answer = cache.getIfPresent(key);
+        if (answer == null) {
+            return null;
+        }
+        tokensSaved.increment(answer.tokens());
+        return answer.reply();
+    }
+
+    void put(Key key, String reply, long tokens) {
+        if (key != null) {
+            cache.put(key, new Answer(reply, tokens));
+        }
+    }
+
+    record Key(String message, String language, long catalogueVersion) {
+    }
+
+    private record Answer(String reply, long tokens) {
+    }
+}
@@ -4,21 +4,30 @@ import com.siempretour.Chat.Dto.ChatRequest;
 import com.siempretour.Chat.Dto.ChatResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-/** Public chat endpoint backing js/chat-widget.js. */
+/** Public chat endpoints backing js/chat-widget.js. */
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 public class ChatController {
 
     private final ChatService chatService;
+    private final ChatStreamService chatStreamService;
 
     @PostMapping("/api/chat")
     public ResponseEntity<ChatResponse> chat(@RequestBody ChatRequest request) {
         return ResponseEntity.ok(chatService.chat(request));
     }
+
+    /** Same conversation as /api/chat, relayed token by token as Server-Sent Events. */
+    @PostMapping(value = "/api/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@RequestBody ChatRequest request) {
+        return chatStreamService.stream(request);
+    }
 }
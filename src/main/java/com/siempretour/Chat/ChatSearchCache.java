@@ -0,0 +1,79 @@
+package com.siempretour.Chat;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.siempretour.Filter.TextFolding;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.TourChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Caches for the chat `search_tours` tool: the rendered tool result per (folded query,
+ * language), and the rendered line per tour version so the HTML strip in ChatService.clip
+ * runs once per tour edit instead of once per search.
+ *
+ * Results are dropped after every committed catalogue change, seat updates included: the
+ * text has no seat counts, but taking the last seats makes a tour SOLD_OUT and the search
+ * only offers PUBLISHED tours. The generation in the key keeps a search that was
+ * running during the change from storing its stale result. Other instances' writes are
+ * picked up when the TTL expires. Metrics: cache.* with cache=chatSearch / chatTourLine.
+ */
+@Component
+public class ChatSearchCache {
+
+    private final Cache<ResultKey, String> results;
+    private final Cache<LineKey, String> lines;
+    private final AtomicLong generation = new AtomicLong();
+
+    public ChatSearchCache(
+            MeterRegistry meterRegistry,
+            @Value("${chat.search-cache.max-entries:2000}") long maxEntries,
+            @Value("${chat.search-cache.ttl:PT10M}") Duration ttl) {
+        this.results = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.lines = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, results, "chatSearch");
+        CaffeineCacheMetrics.monitor(meterRegistry, lines, "chatTourLine");
+    }
+
+    /**
+     * The key uses {@link TextFolding#fold}, so "İtalya", "ITALYA" and "italya" share one
+     * entry; the loader still searches with the query as the model sent it.
+     */
+    public String result(String query, String language, Supplier<String> loader) {
+        return results.get(new ResultKey(generation.get(), TextFolding.fold(query), language), key -> loader.get());
+    }
+
+    public String line(Tour tour, Function<Tour, String> renderer) {
+        return lines.get(new LineKey(tour.getId(), tour.getUpdatedAt()), key -> renderer.apply(tour));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        generation.incrementAndGet();
+        results.invalidateAll();
+    }
+
+    private record ResultKey(long generation, String query, String language) {
+    }
+
+    private record LineKey(Long tourId, LocalDateTime updatedAt) {
+    }
+}
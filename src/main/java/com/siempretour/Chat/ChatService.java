@@ -5,24 +5,33 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.siempretour.Chat.Dto.ChatMessage;
 import com.siempretour.Chat.Dto.ChatRequest;
 import com.siempretour.Chat.Dto.ChatResponse;
+import com.siempretour.Filter.TourVectorIndex;
 import com.siempretour.Tours.TourRepository;
 import com.siempretour.Tours.Models.Tour;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientResponseException;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
+import java.time.Duration;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Talks to the OpenAI Chat Completions API on behalf of the public chat widget.
@@ -30,7 +39,8 @@ import java.util.Map;
  * Grounding strategy (Approach B — function calling): instead of stuffing the
  * whole catalogue into the prompt (which doesn't scale past a handful of tours),
  * the model is given a `search_tours` tool. When the user asks about tours /
- * destinations, the model calls the tool, we run a DB search, return the matches,
+ * destinations, the model calls the tool, we rank tours with the in-memory
+ * TourVectorIndex (DB substring search as fallback), return the matches,
  * and the model answers from real data. This scales to the full catalogue
  * (thousands of tours) and stays cheap because only relevant tours are returned.
  *
@@ -87,11 +97,16 @@ public class ChatService {
     ));
 
     private static final int RESULT_LIMIT = 15;   // tours returned per search
-    private static final int MAX_TOOL_ROUNDS = 3; // safety cap on tool-call loops
+    static final int MAX_TOOL_ROUNDS = 3;         // safety cap on tool-call loops
     private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("dd.MM.yyyy");
 
     private final RestClient restClient;
+    private final RestClient streamClient;
+    private final OpenAiGuard openAiGuard;
     private final TourRepository tourRepository;
+    private final ChatSearchCache searchCache;
+    private final ChatAnswerCache answerCache;
+    private final TourVectorIndex vectorIndex;
     private final ObjectMapper objectMapper;
     private final String apiKey;
     private final String model;
@@ -99,17 +114,41 @@ public class ChatService {
 
     public ChatService(
             TourRepository tourRepository,
+            ChatSearchCache searchCache,
+            ChatAnswerCache answerCache,
+            TourVectorIndex vectorIndex,
             ObjectMapper objectMapper,
             @Value("${openai.api-key:}") String apiKey,
             @Value("${openai.base-url:https://api.openai.com/v1}") String baseUrl,
             @Value("${openai.model:gpt-4o-mini}") String model,
-            @Value("${openai.max-tokens:500}") int maxTokens) {
+            @Value("${openai.max-tokens:500}") int maxTokens,
+            @Value("${openai.connect-timeout:PT5S}") Duration connectTimeout,
+            @Value("${openai.read-timeout:PT30S}") Duration readTimeout,
+            @Value("${openai.stream-read-timeout:PT60S}") Duration streamReadTimeout,
+            OpenAiGuard openAiGuard) {
         this.tourRepository = tourRepository;
+        this.searchCache = searchCache;
+        this.answerCache = answerCache;
+        this.vectorIndex = vectorIndex;
         this.objectMapper = objectMapper;
         this.apiKey = apiKey == null ? "" : apiKey.trim();
         this.model = model;
         this.maxTokens = maxTokens;
-        this.restClient = RestClient.builder().baseUrl(baseUrl).build();
+        this.openAiGuard = openAiGuard;
+        HttpClient httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+        this.restClient = RestClient.builder().baseUrl(baseUrl).requestFactory(requestFactory(httpClient, readTimeout)).build();
+        // Streams read for as long as the answer is being written, so they get their own budget
+        this.streamClient = RestClient.builder().baseUrl(baseUrl).requestFactory(requestFactory(httpClient, streamReadTimeout)).build();
+    }
+
+    /**
+     * The read timeout bounds the whole exchange, response body included: Spring 6.2 cancels
+     * the response once it expires, even while the body is still being read.
+     */
+    private static JdkClientHttpRequestFactory requestFactory(HttpClient httpClient, Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return requestFactory;
     }
 
     public ChatResponse chat(ChatRequest req) {
@@ -118,31 +157,26 @@ public class ChatService {
         String userMessage = req == null || req.getMessage() == null ? "" : req.getMessage().trim();
 
         if (userMessage.isEmpty()) {
-            return new ChatResponse(en ? "Please type a message." : "Lütfen bir mesaj yazın.");
+            return new ChatResponse(emptyMessageReply(en));
         }
-        if (apiKey.isEmpty()) {
+        if (!isConfigured()) {
             log.warn("Chat called but openai.api-key is not configured — returning fallback message.");
-            return new ChatResponse(en
-                    ? "The assistant is not available right now. Please contact us directly."
-                    : "Asistan şu anda kullanılamıyor. Lütfen bizimle doğrudan iletişime geçin.");
+            return new ChatResponse(unavailableReply(en));
         }
 
-        List<Map<String, Object>> messages = new ArrayList<>();
-        messages.add(msg("system", SYSTEM_PROMPT));
-        if (req.getHistory() != null) {
-            for (ChatMessage m : req.getHistory()) {
-                if (m == null || m.getContent() == null || m.getContent().isBlank()) continue;
-                if (Boolean.TRUE.equals(m.getFailed())) continue; // skip error bubbles
-                String role = "assistant".equalsIgnoreCase(m.getRole()) ? "assistant" : "user";
-                if ("user".equals(role) && m.getContent().trim().equals(userMessage)) continue; // de-dupe
-                messages.add(msg(role, m.getContent()));
-            }
+        List<Map<String, Object>> messages = buildMessages(req, userMessage);
+        ChatAnswerCache.Key cacheKey = answerCache.key(messages, userMessage, defaultLang);
+        String cached = answerCache.get(cacheKey);
+        if (cached != null) {
+            return new ChatResponse(cached);
         }
-        messages.add(msg("user", userMessage));
 
+        long tokens = 0;
         try {
             for (int round = 0; round < MAX_TOOL_ROUNDS; round++) {
-                JsonNode message = callOpenAi(messages);
+                JsonNode response = callOpenAi(messages);
+                tokens += response.path("usage").path("total_tokens").asLong(0);
+                JsonNode message = response.path("choices").path(0).path("message");
                 JsonNode toolCalls = message.path("tool_calls");
 
                 if (toolCalls.isArray() && !toolCalls.isEmpty()) {
@@ -170,19 +204,122 @@ public class ChatService {
 
                 String content = message.path("content").asText("");
                 if (content.isBlank()) break;
+                answerCache.put(cacheKey, content.trim(), tokens);
                 return new ChatResponse(content.trim());
             }
             log.warn("Chat exhausted tool rounds without a final answer.");
+        } catch (OpenAiGuard.RejectedException e) {
+            log.warn(e.getMessage());
         } catch (Exception e) {
             log.error("OpenAI chat request failed: {}", e.getMessage());
         }
-        return new ChatResponse(en
+        return new ChatResponse(failureReply(en));
+    }
+
+    boolean isConfigured() {
+        return !apiKey.isEmpty();
+    }
+
+    static String emptyMessageReply(boolean en) {
+        return en ? "Please type a message." : "Lütfen bir mesaj yazın.";
+    }
+
+    static String unavailableReply(boolean en) {
+        return en
+                ? "The assistant is not available right now. Please contact us directly."
+                : "Asistan şu anda kullanılamıyor. Lütfen bizimle doğrudan iletişime geçin.";
+    }
+
+    static String failureReply(boolean en) {
+        return en
                 ? "Sorry, I couldn't connect right now. Please try again."
-                : "Üzgünüm, şu anda bağlanamadım. Lütfen tekrar deneyin.");
+                : "Üzgünüm, şu anda bağlanamadım. Lütfen tekrar deneyin.";
+    }
+
+    /** System prompt, usable history and the new user message, in Chat Completions format. */
+    List<Map<String, Object>> buildMessages(ChatRequest req, String userMessage) {
+        List<Map<String, Object>> messages = new ArrayList<>();
+        messages.add(msg("system", SYSTEM_PROMPT));
+        if (req.getHistory() != null) {
+            for (ChatMessage m : req.getHistory()) {
+                if (m == null || m.getContent() == null || m.getContent().isBlank()) continue;
+                if (Boolean.TRUE.equals(m.getFailed())) continue; // skip error bubbles
+                String role = "assistant".equalsIgnoreCase(m.getRole()) ? "assistant" : "user";
+                if ("user".equals(role) && m.getContent().trim().equals(userMessage)) continue; // de-dupe
+                messages.add(msg(role, m.getContent()));
+            }
+        }
+        messages.add(msg("user", userMessage));
+        return messages;
     }
 
-    /** One Chat Completions call; returns choices[0].message as a JsonNode. */
+    /** One Chat Completions call; returns the whole response (choices, usage) as a JsonNode. */
     private JsonNode callOpenAi(List<Map<String, Object>> messages) throws Exception {
+        try (OpenAiGuard.Permit permit = openAiGuard.acquire()) {
+            String raw;
+            try {
+                raw = restClient.post()
+                        .uri("/chat/completions")
+                        .header("Authorization", "Bearer " + apiKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(requestBody(messages, false))
+                        .retrieve()
+                        .body(String.class);
+            } catch (RuntimeException e) {
+                permit.failed(e);
+                throw e;
+            }
+            permit.succeeded();
+            return objectMapper.readTree(raw);
+        }
+    }
+
+    /**
+     * Streaming Chat Completions call (stream=true): hands every server-sent chunk to onChunk
+     * as it arrives, until the upstream sends [DONE]. An exception thrown by onChunk (e.g. the
+     * browser went away) aborts the upstream request. Holds an OpenAiGuard slot for the whole
+     * stream; the first chunk counts as the answer. Bounded by openai.stream-read-timeout.
+     */
+    void streamOpenAi(List<Map<String, Object>> messages, Consumer<JsonNode> onChunk) {
+        try (OpenAiGuard.Permit permit = openAiGuard.acquire()) {
+            try {
+                stream(messages, onChunk, permit);
+            } catch (RuntimeException e) {
+                permit.failed(e);
+                throw e;
+            }
+        }
+    }
+
+    private void stream(List<Map<String, Object>> messages, Consumer<JsonNode> onChunk, OpenAiGuard.Permit permit) {
+        streamClient.post()
+                .uri("/chat/completions")
+                .header("Authorization", "Bearer " + apiKey)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .body(requestBody(messages, true))
+                .exchange((request, response) -> {
+                    if (response.getStatusCode().isError()) {
+                        // Carries the status, so OpenAiGuard can tell a 5xx/429 from a bad request
+                        throw new RestClientResponseException("OpenAI stream failed", response.getStatusCode(),
+                                response.getStatusText(), response.getHeaders(), null, null);
+                    }
+                    try (BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (!line.startsWith("data:")) continue; // blank separators, comments
+                            String data = line.substring(5).trim();
+                            if ("[DONE]".equals(data)) break;
+                            permit.succeeded();
+                            onChunk.accept(objectMapper.readTree(data));
+                        }
+                    }
+                    return null;
+                });
+    }
+
+    private Map<String, Object> requestBody(List<Map<String, Object>> messages, boolean stream) {
         Map<String, Object> body = new HashMap<>();
         body.put("model", model);
         body.put("messages", messages);
@@ -190,30 +327,25 @@ public class ChatService {
         body.put("temperature", 0.7);
         body.put("tools", TOOLS);
         body.put("tool_choice", "auto");
-
-        String raw = restClient.post()
-                .uri("/chat/completions")
-                .header("Authorization", "Bearer " + apiKey)
-                .contentType(MediaType.APPLICATION_JSON)
-                .body(body)
-                .retrieve()
-                .body(String.class);
-
-        JsonNode root = objectMapper.readTree(raw);
-        return root.path("choices").path(0).path("message");
+        if (stream) {
+            body.put("stream", true);
+            body.put("stream_options", Map.of("include_usage", true)); // usage arrives in the last chunk
+        }
+        return body;
     }
 
     /** Dispatches a tool call from the model. Currently only `search_tours`. */
-    private String runTool(String name, String argsJson, String defaultLang) {
+    String runTool(String name, String argsJson, String defaultLang) {
         if (!"search_tours".equals(name)) {
             return "Bilinmeyen araç: " + name;
         }
         try {
             JsonNode args = objectMapper.readTree(argsJson);
+            // Searched as sent (trimmed); only the cache key is folded
             String query = args.path("query").asText("").trim();
-            String lang = args.path("language").asText(defaultLang);
-            if (!"tr".equalsIgnoreCase(lang) && !"en".equalsIgnoreCase(lang)) lang = defaultLang;
-            return searchTours(query, lang);
+            String requested = args.path("language").asText(defaultLang).toLowerCase(Locale.ROOT);
+            String lang = "tr".equals(requested) || "en".equals(requested) ? requested : defaultLang;
+            return searchCache.result(query, lang, () -> searchTours(query, lang));
         } catch (Exception e) {
             log.warn("search_tours failed to parse args {}: {}", argsJson, e.getMessage());
             return "Arama yapılamadı.";
@@ -221,8 +353,11 @@ public class ChatService {
     }
 
     private String searchTours(String query, String lang) {
+        List<Tour> results = rankedTours(query, lang);
         var page = PageRequest.of(0, RESULT_LIMIT);
-        List<Tour> results = tourRepository.searchForChat(query, lang, page);
+        if (results.isEmpty()) {
+            results = tourRepository.searchForChat(query, lang, page);
+        }
         // If nothing in the requested language, retry across all languages.
         if (results.isEmpty()) {
             results = tourRepository.searchForChat(query, null, page);
@@ -232,11 +367,33 @@ public class ChatService {
         }
         StringBuilder sb = new StringBuilder("Bulunan turlar (sadece bunları kullan):\n");
         for (Tour t : results) {
-            sb.append(tourLine(t)).append('\n');
+            sb.append(searchCache.line(t, this::tourLine)).append('\n');
         }
         return sb.toString();
     }
 
+    /** Best matches from the local relevance index (requested language first); empty when it cannot answer. */
+    private List<Tour> rankedTours(String query, String lang) {
+        if (query.isEmpty() || !vectorIndex.isReady()) {
+            return List.of(); // empty query = "upcoming tours", which the date-ordered DB search answers
+        }
+        List<Long> ids = vectorIndex.search(query, lang, RESULT_LIMIT);
+        if (ids.isEmpty()) {
+            ids = vectorIndex.search(query, null, RESULT_LIMIT);
+        }
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Tour> byId = new HashMap<>();
+        tourRepository.findAllById(ids).forEach(t -> byId.put(t.getId(), t));
+        List<Tour> ranked = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Tour tour = byId.get(id);
+            if (tour != null) ranked.add(tour);
+        }
+        return ranked;
+    }
+
     private String tourLine(Tour t) {
         StringBuilder line = new StringBuilder("- ");
         line.append(nz(t.getName()));
@@ -272,7 +429,7 @@ public class ChatService {
         return line.toString();
     }
 
-    private static Map<String, Object> msg(String role, String content) {
+    static Map<String, Object> msg(String role, String content) {
         Map<String, Object> m = new HashMap<>();
         m.put("role", role);
         m.put("content", content);
@@ -0,0 +1,246 @@
+package com.siempretour.Chat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.siempretour.Chat.Dto.ChatRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streaming variant of ChatService.chat for POST /api/chat/stream.
+ *
+ * The request thread only creates the SseEmitter; the conversation runs on a stream worker
+ * that calls Chat Completions with stream=true and relays content deltas to the browser as
+ * they arrive. Streamed tool_calls are assembled from their fragments and each search_tours
+ * call is started as soon as its arguments are complete (the next call index shows up or the
+ * choice finishes), so the DB search overlaps with the rest of the upstream stream.
+ *
+ * Events: "token" {"text"} per content delta, "tool" {"name"} when a tool starts,
+ * "done" {"reply"} with the full answer, "error" {"message"} with the fallback text.
+ */
+@Slf4j
+@Service
+public class ChatStreamService {
+
+    private final ChatService chatService;
+    private final ChatAnswerCache answerCache;
+    private final Duration timeout;
+    private final Semaphore slots;
+    private final SimpleAsyncTaskExecutor streamExecutor = new SimpleAsyncTaskExecutor("chat-stream-");
+    // Separate from the stream workers so a tool call never waits for a stream slot
+    private final SimpleAsyncTaskExecutor toolExecutor = new SimpleAsyncTaskExecutor("chat-tool-");
+
+    public ChatStreamService(
+            ChatService chatService,
+            ChatAnswerCache answerCache,
+            @Value("${chat.stream.timeout:PT60S}") Duration timeout,
+            @Value("${chat.stream.max-concurrent:50}") int maxConcurrent,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.chatService = chatService;
+        this.answerCache = answerCache;
+        this.timeout = timeout;
+        this.slots = new Semaphore(maxConcurrent);
+        this.streamExecutor.setVirtualThreads(virtualThreads);
+        this.toolExecutor.setVirtualThreads(virtualThreads);
+    }
+
+    public SseEmitter stream(ChatRequest req) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        boolean en = req != null && "en".equalsIgnoreCase(req.getLanguage());
+        String userMessage = req == null || req.getMessage() == null ? "" : req.getMessage().trim();
+
+        if (userMessage.isEmpty()) {
+            finish(emitter, "done", Map.of("reply", ChatService.emptyMessageReply(en)));
+            return emitter;
+        }
+        if (!chatService.isConfigured()) {
+            log.warn("Chat stream called but openai.api-key is not configured — returning fallback message.");
+            finish(emitter, "done", Map.of("reply", ChatService.unavailableReply(en)));
+            return emitter;
+        }
+        List<Map<String, Object>> messages = chatService.buildMessages(req, userMessage);
+        ChatAnswerCache.Key cacheKey = answerCache.key(messages, userMessage, en ? "en" : "tr");
+        String cached = answerCache.get(cacheKey);
+        if (cached != null) {
+            finish(emitter, "done", Map.of("reply", cached));
+            return emitter;
+        }
+        if (!slots.tryAcquire()) {
+            log.warn("Chat stream rejected: all stream slots are busy");
+            finish(emitter, "error", Map.of("message", ChatService.failureReply(en)));
+            return emitter;
+        }
+
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(e -> closed.set(true));
+        emitter.onCompletion(() -> closed.set(true));
+        try {
+            streamExecutor.execute(() -> {
+                try {
+                    converse(emitter, closed, messages, cacheKey, en);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+        return emitter;
+    }
+
+    private void converse(SseEmitter emitter, AtomicBoolean closed, List<Map<String, Object>> messages,
+            ChatAnswerCache.Key cacheKey, boolean en) {
+        String defaultLang = en ? "en" : "tr";
+        long tokens = 0;
+        try {
+            for (int round = 0; round < ChatService.MAX_TOOL_ROUNDS; round++) {
+                Turn turn = new Turn(emitter, closed, defaultLang);
+                chatService.streamOpenAi(messages, turn::accept);
+                turn.startPendingCalls();
+                tokens += turn.tokens;
+
+                if (turn.calls.isEmpty()) {
+                    String content = turn.content.toString().trim();
+                    if (content.isBlank()) break;
+                    answerCache.put(cacheKey, content, tokens);
+                    finish(emitter, "done", Map.of("reply", content));
+                    return;
+                }
+
+                List<Map<String, Object>> toolCalls = new ArrayList<>();
+                for (ToolCall call : turn.calls.values()) {
+                    toolCalls.add(Map.of("id", call.id, "type", "function",
+                            "function", Map.of("name", call.name, "arguments", call.arguments.toString())));
+                }
+                Map<String, Object> assistantMsg = new HashMap<>();
+                assistantMsg.put("role", "assistant");
+                assistantMsg.put("content", turn.content.isEmpty() ? null : turn.content.toString());
+                assistantMsg.put("tool_calls", toolCalls);
+                messages.add(assistantMsg);
+
+                for (ToolCall call : turn.calls.values()) {
+                    Map<String, Object> toolMsg = new HashMap<>();
+                    toolMsg.put("role", "tool");
+                    toolMsg.put("tool_call_id", call.id);
+                    toolMsg.put("content", call.result.join());
+                    messages.add(toolMsg);
+                }
+            }
+            log.warn("Chat stream exhausted tool rounds without a final answer.");
+        } catch (ClientGoneException e) {
+            log.debug("Chat stream client disconnected");
+            return;
+        } catch (OpenAiGuard.RejectedException e) {
+            log.warn(e.getMessage());
+        } catch (Exception e) {
+            log.error("OpenAI chat stream failed: {}", e.getMessage());
+        }
+        if (!closed.get()) {
+            finish(emitter, "error", Map.of("message", ChatService.failureReply(en)));
+        }
+    }
+
+    private static void finish(SseEmitter emitter, String event, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    /** One streamed completion: accumulates content and tool-call fragments. */
+    private final class Turn {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean closed;
+        private final String defaultLang;
+        private final StringBuilder content = new StringBuilder();
+        private final TreeMap<Integer, ToolCall> calls = new TreeMap<>();
+        private long tokens;
+
+        Turn(SseEmitter emitter, AtomicBoolean closed, String defaultLang) {
+            this.emitter = emitter;
+            this.closed = closed;
+            this.defaultLang = defaultLang;
+        }
+
+        void accept(JsonNode chunk) {
+            if (closed.get()) {
+                throw new ClientGoneException();
+            }
+            tokens += chunk.path("usage").path("total_tokens").asLong(0);
+            JsonNode choice = chunk.path("choices").path(0);
+            JsonNode delta = choice.path("delta");
+
+            String text = delta.path("content").asText("");
+            if (!text.isEmpty()) {
+                content.append(text);
+                send("token", Map.of("text", text));
+            }
+            for (JsonNode fragment : delta.path("tool_calls")) {
+                int index = fragment.path("index").asInt(0);
+                // A new index means every earlier call has received all of its arguments
+                calls.headMap(index).values().forEach(this::start);
+                ToolCall call = calls.computeIfAbsent(index, i -> new ToolCall());
+                if (fragment.hasNonNull("id")) call.id = fragment.get("id").asText();
+                JsonNode function = fragment.path("function");
+                if (function.hasNonNull("name")) call.name = function.get("name").asText();
+                if (function.hasNonNull("arguments")) call.arguments.append(function.get("arguments").asText());
+            }
+            if (choice.hasNonNull("finish_reason")) {
+                startPendingCalls();
+            }
+        }
+
+        void startPendingCalls() {
+            calls.values().forEach(this::start);
+        }
+
+        private void start(ToolCall call) {
+            if (call.result != null) return;
+            String name = call.name;
+            String args = call.arguments.isEmpty() ? "{}" : call.arguments.toString();
+            call.result = CompletableFuture.supplyAsync(() -> chatService.runTool(name, args, defaultLang), toolExecutor);
+            send("tool", Map.of("name", name));
+        }
+
+        private void send(String event, Object data) {
+            try {
+                emitter.send(SseEmitter.event().name(event).data(data));
+            } catch (IOException | IllegalStateException e) {
+                closed.set(true);
+                throw new ClientGoneException();
+            }
+        }
+    }
+
+    private static final class ToolCall {
+        private String id = "";
+        private String name = "";
+        private final StringBuilder arguments = new StringBuilder();
+        private CompletableFuture<String> result;
+    }
+
+    /** Thrown from the chunk callback to abort the upstream request once the browser has gone. */
+    private static final class ClientGoneException extends RuntimeException {
+        ClientGoneException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.siempretour.Chat;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Admission control for OpenAI calls, so a slow or failing provider costs the site a bounded
+ * number of waiting threads instead of all of them.
+ *
+ * - Bulkhead: at most `limit` calls in flight; further callers wait in a bounded queue for
+ *   up to queue-timeout and are rejected after that (or at once when the queue is full).
+ * - Adaptive limit (AIMD): a call that succeeds faster than latency-threshold while the
+ *   bulkhead is at least half used raises the limit by 1/limit (about +1 per limit's worth of
+ *   calls); a slow or failed call multiplies it by BACKOFF. Bounded by min/max-limit.
+ * - Circuit breaker: failure-threshold consecutive failures open it for open-duration, during
+ *   which calls are rejected immediately; then one trial call decides whether it closes again.
+ *
+ * Only provider trouble counts as a failure: 5xx, 429 and I/O errors (timeouts included).
+ * Other 4xx answers and aborted calls (the browser left) release the slot without touching
+ * the limit or the breaker.
+ *
+ * Rejections throw {@link RejectedException}, which the chat endpoints turn into the usual
+ * fallback reply. Latency is the whole call for /api/chat and time to the first chunk for
+ * streams. Metrics: chat.openai.limit / in_flight / queued / circuit_state gauges,
+ * chat.openai.latency timer (outcome tag) and chat.openai.rejected counter (reason tag).
+ */
+@Slf4j
+@Component
+public class OpenAiGuard {
+
+    private static final double BACKOFF = 0.8;
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private enum Outcome { SUCCESS, FAILURE, NEUTRAL }
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final int queueSize;
+    private final long queueTimeoutNanos;
+    private final long latencyThresholdNanos;
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotFreed = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int queued;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedQueueTimeout;
+    private final Counter rejectedCircuitOpen;
+
+    public OpenAiGuard(
+            MeterRegistry meterRegistry,
+            @Value("${chat.openai.guard.initial-limit:10}") int initialLimit,
+            @Value("${chat.openai.guard.min-limit:2}") int minLimit,
+            @Value("${chat.openai.guard.max-limit:50}") int maxLimit,
+            @Value("${chat.openai.guard.queue-size:50}") int queueSize,
+            @Value("${chat.openai.guard.queue-timeout:PT5S}") Duration queueTimeout,
+            @Value("${chat.openai.guard.latency-threshold:PT10S}") Duration latencyThreshold,
+            @Value("${chat.openai.guard.failure-threshold:5}") int failureThreshold,
+            @Value("${chat.openai.guard.open-duration:PT30S}") Duration openDuration) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.queueSize = Math.max(0, queueSize);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+
+        Gauge.builder("chat.openai.limit", this, g -> g.read(() -> Math.floor(g.limit))).register(meterRegistry);
+        Gauge.builder("chat.openai.in_flight", this, g -> g.read(() -> g.inFlight)).register(meterRegistry);
+        Gauge.builder("chat.openai.queued", this, g -> g.read(() -> g.queued)).register(meterRegistry);
+        Gauge.builder("chat.openai.circuit_state", this, g -> g.read(() -> g.state.ordinal()))
+                .description("0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        this.successTimer = Timer.builder("chat.openai.latency").tag("outcome", "success").register(meterRegistry);
+        this.failureTimer = Timer.builder("chat.openai.latency").tag("outcome", "failure").register(meterRegistry);
+        this.rejectedQueueFull = rejectedCounter(meterRegistry, "queue_full");
+        this.rejectedQueueTimeout = rejectedCounter(meterRegistry, "queue_timeout");
+        this.rejectedCircuitOpen = rejectedCounter(meterRegistry, "circuit_open");
+    }
+
+    /** Thrown instead of calling OpenAI when the breaker is open or no slot frees up in time. */
+    public static class RejectedException extends RuntimeException {
+        RejectedException(String reason) {
+            super("OpenAI call rejected: " + reason);
+        }
+    }
+
+    /**
+     * Waits for a slot; use with try-with-resources and call {@link Permit#succeeded()} once the
+     * upstream has answered, or {@link Permit#failed} with the exception. A permit closed
+     * without either counts as a failure.
+     */
+    public Permit acquire() {
+        long deadline = System.nanoTime() + queueTimeoutNanos;
+        lock.lock();
+        try {
+            boolean trial = admit();
+            try {
+                if (inFlight >= currentLimit()) {
+                    if (queued >= queueSize) {
+                        rejectedQueueFull.increment();
+                        throw new RejectedException("queue full");
+                    }
+                    queued++;
+                    try {
+                        long remaining = deadline - System.nanoTime();
+                        while (inFlight >= currentLimit()) {
+                            if (remaining <= 0) {
+                                rejectedQueueTimeout.increment();
+                                throw new RejectedException("no slot within the queue timeout");
+                            }
+                            remaining = slotFreed.awaitNanos(remaining);
+                        }
+                    } finally {
+                        queued--;
+                    }
+                }
+            } catch (RejectedException e) {
+                if (trial) trialInFlight = false;
+                throw e;
+            } catch (InterruptedException e) {
+                if (trial) trialInFlight = false;
+                Thread.currentThread().interrupt();
+                throw new RejectedException("interrupted");
+            }
+            inFlight++;
+            return new Permit(trial);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Circuit check (caller holds the lock); returns true when this call is the half-open trial. */
+    private boolean admit() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openUntil < 0) {
+                rejectedCircuitOpen.increment();
+                throw new RejectedException("circuit open");
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                rejectedCircuitOpen.increment();
+                throw new RejectedException("circuit open");
+            }
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    /** True for errors that say something about the provider: 5xx, 429, timeouts and I/O errors. */
+    static boolean isProviderFailure(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof RestClientResponseException response) {
+                int status = response.getStatusCode().value();
+                return status >= 500 || status == 429;
+            }
+            if (t instanceof IOException) {
+                return true; // includes HttpTimeoutException
+            }
+        }
+        return false;
+    }
+
+    private void release(Permit permit, Outcome outcome, long latencyNanos) {
+        if (outcome != Outcome.NEUTRAL) {
+            (outcome == Outcome.SUCCESS ? successTimer : failureTimer).record(latencyNanos, TimeUnit.NANOSECONDS);
+        }
+        lock.lock();
+        try {
+            if (outcome == Outcome.NEUTRAL) {
+                // Says nothing about the provider; a half-open trial is simply handed to the next call
+                inFlight--;
+                if (permit.trial) {
+                    trialInFlight = false;
+                }
+                slotFreed.signalAll();
+                return;
+            }
+            boolean success = outcome == Outcome.SUCCESS;
+            if (success && latencyNanos <= latencyThresholdNanos) {
+                if (inFlight * 2 >= currentLimit()) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+            } else {
+                limit = Math.max(minLimit, limit * BACKOFF);
+            }
+            inFlight--;
+
+            if (success) {
+                consecutiveFailures = 0;
+                if (permit.trial) {
+                    state = State.CLOSED;
+                    log.info("OpenAI circuit closed");
+                }
+            } else {
+                consecutiveFailures++;
+                if (permit.trial || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                    state = State.OPEN;
+                    openUntil = System.nanoTime() + openNanos;
+                    log.warn("OpenAI circuit opened after {} consecutive failures", consecutiveFailures);
+                }
+            }
+            if (permit.trial) {
+                trialInFlight = false;
+            }
+            slotFreed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int currentLimit() {
+        return (int) limit;
+    }
+
+    private double read(DoubleSupplier value) {
+        lock.lock();
+        try {
+            return value.getAsDouble();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("chat.openai.rejected").tag("reason", reason).register(meterRegistry);
+    }
+
+    public final class Permit implements AutoCloseable {
+
+        private final boolean trial;
+        private final long start = System.nanoTime();
+        private long latencyNanos = -1;
+        private boolean neutral;
+        private boolean closed;
+
+        private Permit(boolean trial) {
+            this.trial = trial;
+        }
+
+        /** Marks the call as answered; the first call fixes the latency sample. */
+        public void succeeded() {
+            if (latencyNanos < 0) {
+                latencyNanos = System.nanoTime() - start;
+            }
+        }
+
+        /**
+         * Records why an unanswered call ended; only {@link OpenAiGuard#isProviderFailure provider failures}
+         * count against the limit and the breaker. Ignored once the call has succeeded.
+         */
+        public void failed(Throwable error) {
+            if (latencyNanos < 0 && !isProviderFailure(error)) {
+                neutral = true;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (latencyNanos >= 0) {
+                release(this, Outcome.SUCCESS, latencyNanos);
+            } else {
+                release(this, neutral ? Outcome.NEUTRAL : Outcome.FAILURE, System.nanoTime() - start);
+            }
+        }
+    }
+}
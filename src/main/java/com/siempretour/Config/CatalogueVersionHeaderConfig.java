@@ -0,0 +1,29 @@
+package com.siempretour.Config;
+
+import com.siempretour.Tours.CatalogueVersion;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/** Adds X-Catalogue-Version to catalogue reads so clients can tell whether anything changed. */
+@Configuration
+@RequiredArgsConstructor
+public class CatalogueVersionHeaderConfig implements WebMvcConfigurer {
+
+    private final CatalogueVersion catalogueVersion;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                response.setHeader(CatalogueVersion.HEADER, Long.toString(catalogueVersion.current()));
+                return true;
+            }
+        }).addPathPatterns("/api/tours/**", "/api/homepage");
+    }
+}
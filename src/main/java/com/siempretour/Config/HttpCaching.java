@@ -0,0 +1,99 @@
+package com.siempretour.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET support for public read endpoints. Controllers derive a validator (ETag and
+ * optionally Last-Modified) from cheap data such as a row's updatedAt or the catalogue version,
+ * and the body supplier only runs when the client's copy is stale. Cache-Control lets
+ * Cloudflare and browsers reuse responses for max-age and serve stale copies while they
+ * revalidate.
+ */
+@Component
+public class HttpCaching {
+
+    private final CacheControl publicCacheControl;
+
+    public HttpCaching(
+            @Value("${http.cache.public.max-age:PT1M}") Duration maxAge,
+            @Value("${http.cache.public.stale-while-revalidate:PT5M}") Duration staleWhileRevalidate) {
+        this.publicCacheControl = CacheControl.maxAge(maxAge).cachePublic()
+                .staleWhileRevalidate(staleWhileRevalidate);
+    }
+
+    public CacheControl publicCacheControl() {
+        return publicCacheControl;
+    }
+
+    /** Strong ETag built from the given parts, e.g. etag("tour", 12, 1700000000000L) -> "tour-12-1700000000000". */
+    public static String etag(Object... parts) {
+        StringBuilder tag = new StringBuilder("\"");
+        for (int i = 0; i < parts.length; i++) {
+            if (i > 0) {
+                tag.append('-');
+            }
+            tag.append(parts[i]);
+        }
+        return tag.append('"').toString();
+    }
+
+    public static long epochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? 0L : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<T> body) {
+        return respond(request, etag, null, body);
+    }
+
+    /** 304 with validators when the client's copy matches, otherwise 200 with the supplied body. */
+    public <T> ResponseEntity<T> respond(WebRequest request, String etag, LocalDateTime lastModified, Supplier<T> body) {
+        long lastModifiedMillis = lastModified == null ? -1 : epochMillis(lastModified);
+        boolean notModified = isNotModified(request, etag, lastModifiedMillis);
+        ResponseEntity.BodyBuilder builder = notModified ? ResponseEntity.status(HttpStatus.NOT_MODIFIED) : ResponseEntity.ok();
+        builder.eTag(etag).cacheControl(publicCacheControl);
+        if (lastModifiedMillis >= 0) {
+            builder.lastModified(lastModifiedMillis);
+        }
+        return notModified ? builder.build() : builder.body(body.get());
+    }
+
+    // If-None-Match wins over If-Modified-Since (RFC 9110 13.2.2); weak comparison for GET
+    private static boolean isNotModified(WebRequest request, String etag, long lastModifiedMillis) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        String ifModifiedSince = request.getHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null || lastModifiedMillis < 0) {
+            return false;
+        }
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return lastModifiedMillis / 1000 <= since / 1000;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -1,22 +1,66 @@
 package com.siempretour.Contact;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ContactMessageRepository extends JpaRepository<ContactMessage, Long> {
 
+    @Query("SELECT COUNT(c) FROM ContactMessage c WHERE (CAST(:startDate AS timestamp) IS NULL OR c.createdAt >= :startDate) " +
+            "AND (CAST(:endDate AS timestamp) IS NULL OR c.createdAt <= :endDate)")
+    long countAdminRequests(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT CAST(c.createdAt AS LocalDate) AS day, COUNT(c) AS requests FROM ContactMessage c " +
+            "WHERE (CAST(:startDate AS timestamp) IS NULL OR c.createdAt >= :startDate) " +
+            "AND (CAST(:endDate AS timestamp) IS NULL OR c.createdAt <= :endDate) " +
+            "GROUP BY CAST(c.createdAt AS LocalDate)")
+    List<DailyCount> countAdminRequestsPerDay(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    /** Newest-first contact messages strictly after (createdAt, id); feeds the merged admin inbox. */
     @Query("SELECT c FROM ContactMessage c WHERE (CAST(:startDate AS timestamp) IS NULL OR c.createdAt >= :startDate) " +
-            "AND (CAST(:endDate AS timestamp) IS NULL OR c.createdAt <= :endDate) ORDER BY c.createdAt DESC")
-    List<ContactMessage> findAdminRequests(
+            "AND (CAST(:endDate AS timestamp) IS NULL OR c.createdAt <= :endDate) " +
+            "AND (CAST(:createdAt AS timestamp) IS NULL OR c.createdAt < :createdAt " +
+            "     OR (c.createdAt = :createdAt AND c.id < :id)) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    List<ContactMessage> findAdminRequestsAfter(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id,
+            Pageable limit);
+
+    /** Forward-only stream for exports, newest first; consume inside a read-only transaction. */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM ContactMessage c WHERE (CAST(:startDate AS timestamp) IS NULL OR c.createdAt >= :startDate) " +
+            "AND (CAST(:endDate AS timestamp) IS NULL OR c.createdAt <= :endDate) " +
+            "ORDER BY c.createdAt DESC, c.id DESC")
+    Stream<ContactMessage> streamAdminRequests(
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
 
+    interface DailyCount {
+        LocalDate getDay();
+
+        long getRequests();
+    }
+
     @Query("SELECT c FROM ContactMessage c WHERE (CAST(:startDate AS timestamp) IS NULL OR c.createdAt >= :startDate) " +
             "AND (CAST(:endDate AS timestamp) IS NULL OR c.createdAt <= :endDate) ORDER BY c.createdAt DESC")
     Page<ContactMessage> findAdminRequestsPaged(
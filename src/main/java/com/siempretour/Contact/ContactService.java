@@ -1,10 +1,12 @@
 package com.siempretour.Contact;
 
+import com.siempretour.Admin.RequestRecordedEvent;
 import com.siempretour.Contact.Dto.ContactRequestDto;
 import com.siempretour.Contact.Dto.ContactResponseDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
@@ -16,6 +18,7 @@ public class ContactService {
 
     private final ContactMessageRepository contactMessageRepository;
     private final JavaMailSender mailSender;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${contact.target-email}")
     private String targetEmail;
@@ -54,6 +57,7 @@ public class ContactService {
         }
 
         contactMessageRepository.save(msg);
+        eventPublisher.publishEvent(RequestRecordedEvent.of(msg));
         return new ContactResponseDto("Mesajınız başarıyla alındı.");
     }
 }
@@ -23,7 +23,8 @@ public enum ErrorCodes {
     TOUR_COULD_NOT_BE_FOUND(7003, HttpStatus.NOT_FOUND, "TOUR COULD NOT BE FOUND"),
     RESERVATION_COULD_NOT_BE_CREATED(7004,HttpStatus.CONFLICT, "RESERVATION COULD NOT BE CREATED"),
     TOUR_NOT_BOOKABLE(7004, HttpStatus.BAD_REQUEST, "TOUR IS NOT BOOKABLE"),
-    REVIEW_COULD_NOT_BE_FOUND(7005, HttpStatus.NOT_FOUND, "REVIEW COULD NOT BE FOUND");
+    REVIEW_COULD_NOT_BE_FOUND(7005, HttpStatus.NOT_FOUND, "REVIEW COULD NOT BE FOUND"),
+    CONCURRENT_MODIFICATION(7006, HttpStatus.CONFLICT, "RECORD WAS MODIFIED CONCURRENTLY, PLEASE RELOAD AND RETRY");
 
     private final int code;
     private final HttpStatus status;
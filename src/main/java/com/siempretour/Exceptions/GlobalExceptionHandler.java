@@ -4,13 +4,18 @@ import java.time.Instant;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 
 @Slf4j
 @RestControllerAdvice
@@ -43,12 +48,46 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<ErrorResponse>(body, code.getStatus());
     }
 
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        log.warn("Optimistic lock conflict: {}", ex.getMessage());
+        ErrorCodes code = ErrorCodes.CONCURRENT_MODIFICATION;
+        ErrorResponse body = new ErrorResponse(Instant.now(), code.getStatus().value(), code.getCode(), code.getMessage(), code.getStatus().getReasonPhrase());
+
+        return new ResponseEntity<ErrorResponse>(body, code.getStatus());
+    }
+
+    // The client went away mid-response, typically a closed /api/chat/stream tab: nobody is left
+    // to answer (null = handled, nothing written)
+    @ExceptionHandler(AsyncRequestNotUsableException.class)
+    public ResponseEntity<ErrorResponse> handleDisconnectedClient(AsyncRequestNotUsableException ex) {
+        log.debug("Client disconnected: {}", ex.getMessage());
+        return null;
+    }
+
+    // An SseEmitter ran past chat.stream.timeout; once events were sent the status can no longer change
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<ErrorResponse> handleAsyncRequestTimeout(AsyncRequestTimeoutException ex,
+                                                                   HttpServletResponse response) {
+        log.debug("Async request timed out");
+        return response.isCommitted() ? null : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
+    public ResponseEntity<ErrorResponse> handleGenericException(Exception ex, HttpServletResponse response) {
         log.error(ex.getMessage());
+        if (response.isCommitted() || isEventStream(response)) {
+            // The response belongs to a stream (e.g. SSE): an ErrorResponse can neither be converted nor sent
+            return null;
+        }
         ErrorCodes code = ErrorCodes.INTERNAL_SERVER_ERROR;
         ErrorResponse body = new ErrorResponse(Instant.now(), code.getStatus().value(), code.getCode(), ex.getMessage(), code.getStatus().getReasonPhrase());
 
         return new ResponseEntity<ErrorResponse>(body, code.getStatus());
     }
-}
\ No newline at end of file
+
+    private static boolean isEventStream(HttpServletResponse response) {
+        String contentType = response.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+}
@@ -0,0 +1,5 @@
+package com.siempretour.Filter;
+
+/** One facet value and the number of tours that would match if it were selected. */
+public record FacetCountDto(String value, long count) {
+}
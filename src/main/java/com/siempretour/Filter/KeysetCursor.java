@@ -0,0 +1,40 @@
+package com.siempretour.Filter;
+
+import com.siempretour.Exceptions.ErrorCodes;
+import com.siempretour.Exceptions.GlobalException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a keyset (seek) page: the sort key name, its value and the
+ * row id as tie-breaker. Clients only ever see the opaque Base64 form and send it back
+ * unchanged to get the next page.
+ */
+public record KeysetCursor(String key, LocalDateTime value, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = key + SEPARATOR + value + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Returns null for a missing cursor (first page); rejects malformed tokens with VALIDATION_ERROR. */
+    public static KeysetCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected cursor format");
+            }
+            return new KeysetCursor(parts[0], LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
+        }
+    }
+}
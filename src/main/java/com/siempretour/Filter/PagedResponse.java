@@ -1,12 +1,14 @@
 package com.siempretour.Filter;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
@@ -16,10 +18,28 @@ public class PagedResponse<T> {
     private List<T> content;
     private int page;
     private int size;
-    private long totalElements;
-    private int totalPages;
+
+    // Offset pagination only; omitted in cursor mode, which never runs a count query
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer totalPages;
+
     private boolean first;
     private boolean last;
     private boolean hasNext;
     private boolean hasPrevious;
-}
\ No newline at end of file
+
+    // Cursor pagination only: opaque token for the next page, null on the last page
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+
+    // Only when a full-text search hit TourFullTextSearch.MAX_MATCHES: content, totals and
+    // facets cover the best-ranked matches only
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean truncated;
+
+    // Only when requested with facets=true: facet name -> value counts, see TourFacets
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, List<FacetCountDto>> facets;
+}
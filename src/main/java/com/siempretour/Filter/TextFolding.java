@@ -0,0 +1,35 @@
+package com.siempretour.Filter;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Case and accent folding for search keys, Turkish-aware: "İstanbul", "ISTANBUL" and
+ * "ıstanbul" all fold to "istanbul", "Şile" to "sile", "Köln" to "koln".
+ *
+ * Locale-neutral on purpose: lower-casing with the Turkish locale maps I to ı (and with
+ * the root locale İ to "i" plus a combining dot), so both dotted and dotless i are mapped
+ * to plain i before the remaining diacritics are stripped.
+ */
+public final class TextFolding {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextFolding() {
+    }
+
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String mapped = text
+                .replace('İ', 'i')
+                .replace('I', 'i')
+                .replace('ı', 'i');
+        String lower = mapped.toLowerCase(Locale.ROOT);
+        String stripped = COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(stripped).replaceAll(" ").trim();
+    }
+}
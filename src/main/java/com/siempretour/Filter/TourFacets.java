@@ -0,0 +1,178 @@
+package com.siempretour.Filter;
+
+import com.siempretour.Tours.Dto.TourFilterDto;
+import com.siempretour.Tours.Models.TourCategory;
+import com.siempretour.Tours.Models.TourEventType;
+import org.springframework.beans.BeanUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Facet counts for the filter sidebar (category, eventType, destination, departureCity,
+ * duration and price buckets).
+ *
+ * Counts are disjunctive: each facet respects every active filter predicate except its
+ * own, so selecting "Culture" still shows how many "Beach" tours there are. Callers
+ * strip the facet predicates with {@link #withoutFacetPredicates}, group the remaining
+ * matches by the facet columns in a single pass, and feed each group to {@link #add};
+ * the facet predicates are then applied here, per facet.
+ */
+public class TourFacets {
+
+    public static final String CATEGORY = "category";
+    public static final String EVENT_TYPE = "eventType";
+    public static final String DESTINATION = "destination";
+    public static final String DEPARTURE_CITY = "departureCity";
+    public static final String DURATION = "duration";
+    public static final String PRICE = "price";
+
+    // Lower bounds (inclusive); the last bucket is open-ended
+    private static final int[] DURATION_BUCKETS = {1, 4, 8, 15};
+    private static final int[] PRICE_BUCKETS = {0, 500, 1000, 2500, 5000};
+
+    /** One group of matching tours sharing the same facet column values. */
+    public record Row(TourCategory category, TourEventType eventType, String destination,
+                      String departureCity, Integer duration, BigDecimal price, Long count) {
+    }
+
+    private final TourFilterDto filter;
+    private final Map<String, Long> categories = new HashMap<>();
+    private final Map<String, Long> eventTypes = new HashMap<>();
+    private final Map<String, Long> destinations = new HashMap<>();
+    private final Map<String, Long> departureCities = new HashMap<>();
+    private final long[] durations = new long[DURATION_BUCKETS.length];
+    private final long[] prices = new long[PRICE_BUCKETS.length];
+
+    public TourFacets(TourFilterDto filter) {
+        this.filter = filter;
+    }
+
+    /** Copy of the filter without the predicates on facet columns. */
+    public static TourFilterDto withoutFacetPredicates(TourFilterDto filter) {
+        TourFilterDto base = new TourFilterDto();
+        BeanUtils.copyProperties(filter, base);
+        base.setCategory(null);
+        base.setCategories(null);
+        base.setEventType(null);
+        base.setDestination(null);
+        base.setDepartureCity(null);
+        base.setMinDuration(null);
+        base.setMaxDuration(null);
+        base.setMinPrice(null);
+        base.setMaxPrice(null);
+        return base;
+    }
+
+    public void add(Row row) {
+        long n = row.count() != null ? row.count() : 0;
+        boolean category = matchesCategory(row.category());
+        boolean eventType = matchesEventType(row.eventType());
+        boolean destination = matchesDestination(row.destination());
+        boolean departureCity = matchesDepartureCity(row.departureCity());
+        boolean duration = matchesDuration(row.duration());
+        boolean price = matchesPrice(row.price());
+
+        if (row.category() != null && eventType && destination && departureCity && duration && price) {
+            categories.merge(row.category().name(), n, Long::sum);
+        }
+        if (row.eventType() != null && category && destination && departureCity && duration && price) {
+            eventTypes.merge(row.eventType().name(), n, Long::sum);
+        }
+        if (notBlank(row.destination()) && category && eventType && departureCity && duration && price) {
+            destinations.merge(row.destination(), n, Long::sum);
+        }
+        if (notBlank(row.departureCity()) && category && eventType && destination && duration && price) {
+            departureCities.merge(row.departureCity(), n, Long::sum);
+        }
+        if (row.duration() != null && category && eventType && destination && departureCity && price) {
+            int bucket = bucket(DURATION_BUCKETS, row.duration());
+            if (bucket >= 0) durations[bucket] += n;
+        }
+        if (row.price() != null && category && eventType && destination && departureCity && duration) {
+            int bucket = bucket(PRICE_BUCKETS, row.price().intValue());
+            if (bucket >= 0) prices[bucket] += n;
+        }
+    }
+
+    public Map<String, List<FacetCountDto>> build() {
+        Map<String, List<FacetCountDto>> facets = new LinkedHashMap<>();
+        facets.put(CATEGORY, byCount(categories));
+        facets.put(EVENT_TYPE, byCount(eventTypes));
+        facets.put(DESTINATION, byCount(destinations));
+        facets.put(DEPARTURE_CITY, byCount(departureCities));
+        facets.put(DURATION, buckets(DURATION_BUCKETS, durations));
+        facets.put(PRICE, buckets(PRICE_BUCKETS, prices));
+        return facets;
+    }
+
+    // ==================== Facet predicates (same semantics as TourSpecification) ====================
+
+    private boolean matchesCategory(TourCategory value) {
+        if (filter.getCategory() != null && filter.getCategory() != value) return false;
+        return filter.getCategories() == null || filter.getCategories().isEmpty()
+                || filter.getCategories().contains(value);
+    }
+
+    private boolean matchesEventType(TourEventType value) {
+        return filter.getEventType() == null || filter.getEventType() == value;
+    }
+
+    private boolean matchesDestination(String value) {
+        return !notBlank(filter.getDestination()) || filter.getDestination().equals(value);
+    }
+
+    private boolean matchesDepartureCity(String value) {
+        return !notBlank(filter.getDepartureCity())
+                || (value != null && value.toLowerCase(Locale.ROOT)
+                .contains(filter.getDepartureCity().toLowerCase(Locale.ROOT)));
+    }
+
+    private boolean matchesDuration(Integer value) {
+        if (filter.getMinDuration() != null && (value == null || value < filter.getMinDuration())) return false;
+        return filter.getMaxDuration() == null || (value != null && value <= filter.getMaxDuration());
+    }
+
+    private boolean matchesPrice(BigDecimal value) {
+        if (filter.getMinPrice() != null && (value == null || value.compareTo(filter.getMinPrice()) < 0)) return false;
+        return filter.getMaxPrice() == null || (value != null && value.compareTo(filter.getMaxPrice()) <= 0);
+    }
+
+    // ==================== Helpers ====================
+
+    private static int bucket(int[] lowerBounds, int value) {
+        for (int i = lowerBounds.length - 1; i >= 0; i--) {
+            if (value >= lowerBounds[i]) return i;
+        }
+        return -1;
+    }
+
+    private static List<FacetCountDto> buckets(int[] lowerBounds, long[] counts) {
+        List<FacetCountDto> result = new ArrayList<>(lowerBounds.length);
+        for (int i = 0; i < lowerBounds.length; i++) {
+            String label = i + 1 < lowerBounds.length
+                    ? lowerBounds[i] + "-" + (lowerBounds[i + 1] - 1)
+                    : lowerBounds[i] + "+";
+            result.add(new FacetCountDto(label, counts[i]));
+        }
+        return result;
+    }
+
+    private static List<FacetCountDto> byCount(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .map(e -> new FacetCountDto(e.getKey(), e.getValue()))
+                .sorted(Comparator.comparingLong(FacetCountDto::count).reversed()
+                        .thenComparing(FacetCountDto::value))
+                .toList();
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+}
@@ -0,0 +1,114 @@
+package com.siempretour.Filter;
+
+import com.siempretour.Tours.Dto.TourFilterDto;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.TourRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Full-text search over Tour.searchDocument for TourFilterDto.searchQuery.
+ *
+ * On Postgres the query runs against language-aware tsvector expressions ('turkish' for
+ * tr tours, 'english' for en tours) backed by partial GIN indexes, and matches come back
+ * ranked by ts_rank. The last term is a prefix match so search-as-you-type works. Other
+ * databases (H2 in dev) fall back to a LIKE per term without ranking.
+ */
+@Slf4j
+@Component
+public class TourFullTextSearch {
+
+    // Upper bound on ranked matches handed to the filter query as an id list; responses built
+    // from a search that hit it are flagged with PagedResponse.truncated
+    static final int MAX_MATCHES = 1000;
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private static final List<String> INDEX_DDL = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_tours_search_tr ON tours " +
+                    "USING GIN (to_tsvector('turkish', coalesce(search_document, ''))) WHERE language = 'tr'",
+            "CREATE INDEX IF NOT EXISTS idx_tours_search_en ON tours " +
+                    "USING GIN (to_tsvector('english', coalesce(search_document, ''))) WHERE language = 'en'");
+
+    private final TourRepository tourRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public TourFullTextSearch(
+            TourRepository tourRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${spring.jpa.database-platform:}") String databasePlatform) {
+        this.tourRepository = tourRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.postgres = databasePlatform.contains("PostgreSQL");
+    }
+
+    /**
+     * Predicate for the search part of a filter plus, when available, the matching ids in
+     * relevance order. Null when the filter has no searchable terms. capped is true when the
+     * ranked ids stopped at MAX_MATCHES, so totals and facets only cover the best matches.
+     */
+    public record Match(Specification<Tour> spec, List<Long> rankedIds, boolean capped) {
+    }
+
+    public Match match(TourFilterDto filter) {
+        List<String> terms = terms(filter.getSearchQuery());
+        if (terms.isEmpty()) {
+            return null;
+        }
+        if (!postgres) {
+            return new Match(TourSpecification.searchDocumentContainsAll(terms), null, false);
+        }
+        String language = filter.getLanguage() != null && !filter.getLanguage().isBlank() ? filter.getLanguage() : null;
+        List<Long> ids = tourRepository.searchIdsByRank(toTsQuery(terms), language, MAX_MATCHES);
+        boolean capped = ids.size() >= MAX_MATCHES;
+        if (capped) {
+            log.debug("Full-text search for {} capped at {} matches", terms, MAX_MATCHES);
+        }
+        return new Match(TourSpecification.idIn(ids), ids, capped);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        if (!postgres) {
+            return;
+        }
+        INDEX_DDL.forEach(jdbcTemplate::execute);
+        log.info("Full-text search indexes on tours.search_document are in place");
+    }
+
+    /** "Rome  colosseum" -> "rome & colosseum:*" (every term required, last one as prefix). */
+    static String toTsQuery(List<String> terms) {
+        return String.join(" & ", terms) + ":*";
+    }
+
+    /**
+     * Letters/digits only, so user input can never break to_tsquery syntax. İ is mapped to i
+     * before lower-casing (the root locale would give i plus a combining dot, which the split
+     * then cuts into "i" and "talya"), and stray combining marks are dropped. Precomposed
+     * letters such as ü, ş and ı are kept: search_document is not accent-folded, so folding
+     * them (as TextFolding does) would stop "Küba" from matching its own tours.
+     */
+    static List<String> terms(String query) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(query, Normalizer.Form.NFC).replace('İ', 'i');
+        String lower = COMBINING_MARKS.matcher(normalized.toLowerCase(Locale.ROOT)).replaceAll("");
+        return Arrays.stream(SEPARATORS.split(lower))
+                .filter(t -> !t.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,559 @@
+package com.siempretour.Filter;
+
+import com.siempretour.Tours.Dto.TourFilterDto;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourCategory;
+import com.siempretour.Tours.Models.TourEventType;
+import com.siempretour.Tours.Models.TourStatus;
+import com.siempretour.Tours.TourChangedEvent;
+import com.siempretour.Tours.TourRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory copy of the active tour catalogue that answers TourFilterDto queries
+ * (filter, sort, page) without touching Postgres.
+ *
+ * Layout: every tour occupies a slot; numeric/date fields live in primitive column arrays
+ * indexed by slot, enum/language fields are bitsets over slots, and name/destination/
+ * placesVisited tokens map to bitset posting lists used to narrow text matches before the
+ * exact LIKE-style check. Text predicates keep the JPA semantics (case-insensitive
+ * substring); sorting follows Postgres (nulls last ascending, first descending) with the
+ * tour id as tie-breaker.
+ *
+ * Loaded once at startup and updated per tour after every committed write
+ * ({@link TourChangedEvent}). Only active tours are held, so filters that ask for
+ * inactive tours are left to the JPA path (see {@link #supports}).
+ */
+@Slf4j
+@Component
+public class TourSearchIndex {
+
+    private static final long NO_LONG = Long.MIN_VALUE;
+    private static final int NO_INT = Integer.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 256;
+
+    // No "name": Java string order differs from the database collation, so name sorts stay on the JPA path
+    private static final Set<String> SORT_KEYS = Set.of(
+            "id", "createdAt", "updatedAt", "startDate", "endDate",
+            "price", "discountedPrice", "duration", "availableSeats");
+
+    private final TourRepository tourRepository;
+    private final boolean enabled;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean loaded;
+
+    // ---- slot bookkeeping ----
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private int slotCount;
+
+    // ---- primitive columns ----
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    private long[] discountedPriceCents = new long[INITIAL_CAPACITY];
+    private int[] duration = new int[INITIAL_CAPACITY];
+    private int[] availableSeats = new int[INITIAL_CAPACITY];
+    private int[] minParticipants = new int[INITIAL_CAPACITY];
+    private int[] maxParticipants = new int[INITIAL_CAPACITY];
+    private long[] startDate = new long[INITIAL_CAPACITY];
+    private long[] endDate = new long[INITIAL_CAPACITY];
+    private long[] bookingDeadline = new long[INITIAL_CAPACITY];
+    private long[] createdAt = new long[INITIAL_CAPACITY];
+    private long[] updatedAt = new long[INITIAL_CAPACITY];
+
+    // ---- string columns (lower-cased where matched with LIKE) ----
+    private String[] nameLower = new String[INITIAL_CAPACITY];
+    private String[] destination = new String[INITIAL_CAPACITY];
+    private String[] departureCity = new String[INITIAL_CAPACITY];
+    private String[] departureCityLower = new String[INITIAL_CAPACITY];
+    private TourCategory[] categoryOf = new TourCategory[INITIAL_CAPACITY];
+    private TourEventType[] eventTypeOf = new TourEventType[INITIAL_CAPACITY];
+    private String[] shipNameLower = new String[INITIAL_CAPACITY];
+    private String[] shipCompanyLower = new String[INITIAL_CAPACITY];
+    private String[][] tokens = new String[INITIAL_CAPACITY][];
+
+    // ---- bitsets ----
+    private final Map<TourCategory, BitSet> byCategory = new EnumMap<>(TourCategory.class);
+    private final Map<TourStatus, BitSet> byStatus = new EnumMap<>(TourStatus.class);
+    private final Map<TourEventType, BitSet> byEventType = new EnumMap<>(TourEventType.class);
+    private final Map<String, BitSet> byLanguage = new HashMap<>();
+    private final Map<String, BitSet> postings = new HashMap<>();
+
+    public TourSearchIndex(
+            TourRepository tourRepository,
+            @Value("${tour.search.in-memory.enabled:false}") boolean enabled) {
+        this.tourRepository = tourRepository;
+        this.enabled = enabled;
+    }
+
+    /** Ids of one result page (in order) plus the total number of matches. */
+    public record Result(List<Long> ids, long total) {
+    }
+
+    // ==================== Lifecycle ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    public void rebuild() {
+        List<Tour> tours = tourRepository.findByIsActiveTrue();
+        lock.writeLock().lock();
+        try {
+            clear();
+            for (Tour tour : tours) {
+                upsert(tour);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Tour search index loaded with {} active tours", tours.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        if (!loaded || event.tourId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // Read under the lock so two events for the same tour cannot apply an older read last
+            Tour tour = tourRepository.findById(event.tourId()).orElse(null);
+            if (tour == null || !Boolean.TRUE.equals(tour.getIsActive())) {
+                remove(event.tourId());
+            } else {
+                upsert(tour);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== Queries ====================
+
+    /** True when the index is on, loaded, and can answer this filter/sort exactly like the JPA path. */
+    public boolean supports(TourFilterDto filter, String sortBy) {
+        if (!enabled || !loaded) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(filter.getIncludeInactive()) || Boolean.FALSE.equals(filter.getIsActive())) {
+            return false;
+        }
+        // Full-text search runs in the database (see TourFullTextSearch)
+        if (filter.getSearchQuery() != null && !filter.getSearchQuery().isBlank()) {
+            return false;
+        }
+        return SORT_KEYS.contains(sortBy != null ? sortBy : "createdAt");
+    }
+
+    public Result search(TourFilterDto filter, int page, int size, String sortBy, boolean ascending) {
+        lock.readLock().lock();
+        try {
+            int[] matches = match(filter);
+            sort(matches, sortBy != null ? sortBy : "createdAt", ascending);
+
+            int from = (int) Math.min((long) page * size, matches.length);
+            int to = Math.min(from + size, matches.length);
+            List<Long> pageIds = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                pageIds.add(ids[matches[i]]);
+            }
+            return new Result(pageIds, matches.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Facet counts for the filter in one pass over the matches, see {@link TourFacets}. */
+    public Map<String, List<FacetCountDto>> facets(TourFilterDto filter) {
+        TourFacets facets = new TourFacets(filter);
+        lock.readLock().lock();
+        try {
+            for (int slot : match(TourFacets.withoutFacetPredicates(filter))) {
+                facets.add(new TourFacets.Row(categoryOf[slot], eventTypeOf[slot], destination[slot],
+                        departureCity[slot], duration[slot] == NO_INT ? null : duration[slot],
+                        priceCents[slot] == NO_LONG ? null : BigDecimal.valueOf(priceCents[slot], 2), 1L));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return facets.build();
+    }
+
+    private int[] match(TourFilterDto filter) {
+        BitSet candidates = (BitSet) live.clone();
+
+        if (notBlank(filter.getLanguage())) {
+            candidates.and(bits(byLanguage.get(filter.getLanguage())));
+        }
+        if (filter.getCategory() != null) {
+            candidates.and(bits(byCategory.get(filter.getCategory())));
+        }
+        if (filter.getCategories() != null && !filter.getCategories().isEmpty()) {
+            BitSet any = new BitSet();
+            filter.getCategories().forEach(c -> any.or(bits(byCategory.get(c))));
+            candidates.and(any);
+        }
+        if (filter.getStatus() != null) {
+            candidates.and(bits(byStatus.get(filter.getStatus())));
+        }
+        if (filter.getStatuses() != null && !filter.getStatuses().isEmpty()) {
+            BitSet any = new BitSet();
+            filter.getStatuses().forEach(s -> any.or(bits(byStatus.get(s))));
+            candidates.and(any);
+        }
+        if (filter.getEventType() != null) {
+            candidates.and(bits(byEventType.get(filter.getEventType())));
+        }
+        if (Boolean.TRUE.equals(filter.getIsBookable())) {
+            candidates.and(bits(byStatus.get(TourStatus.PUBLISHED)));
+        }
+
+        String nameQuery = notBlank(filter.getName()) ? filter.getName().toLowerCase(Locale.ROOT) : null;
+        if (nameQuery != null) {
+            candidates.and(tokenCandidates(nameQuery));
+        }
+
+        Bounds bounds = new Bounds(filter);
+        int[] out = new int[candidates.cardinality()];
+        int n = 0;
+        for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+            if (nameQuery != null && !nameLower[slot].contains(nameQuery)) continue;
+            if (!bounds.matches(slot, filter)) continue;
+            out[n++] = slot;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Slots whose name/destination/placesVisited tokens contain the first token of the query.
+     * Any name containing the query as a substring has such a token, so this is a superset
+     * of the exact matches and only narrows the scan.
+     */
+    private BitSet tokenCandidates(String query) {
+        String[] queryTokens = tokenize(query);
+        if (queryTokens.length == 0) {
+            return (BitSet) live.clone();
+        }
+        String probe = queryTokens[0];
+        BitSet result = new BitSet();
+        for (Map.Entry<String, BitSet> entry : postings.entrySet()) {
+            if (entry.getKey().contains(probe)) {
+                result.or(entry.getValue());
+            }
+        }
+        return result;
+    }
+
+    /** Range and LIKE predicates, evaluated per candidate slot on the primitive columns. */
+    private final class Bounds {
+        private final long minPrice;
+        private final long maxPrice;
+        private final long startFrom;
+        private final long startTo;
+        private final long endFrom;
+        private final long endTo;
+        private final long now;
+        private final String departureCity;
+        private final String shipName;
+        private final String shipCompany;
+
+        Bounds(TourFilterDto f) {
+            minPrice = f.getMinPrice() == null ? NO_LONG : cents(f.getMinPrice(), RoundingMode.CEILING);
+            maxPrice = f.getMaxPrice() == null ? NO_LONG : cents(f.getMaxPrice(), RoundingMode.FLOOR);
+            startFrom = micros(f.getStartDateFrom());
+            startTo = micros(f.getStartDateTo());
+            endFrom = micros(f.getEndDateFrom());
+            endTo = micros(f.getEndDateTo());
+            now = micros(LocalDateTime.now());
+            departureCity = notBlank(f.getDepartureCity()) ? f.getDepartureCity().toLowerCase(Locale.ROOT) : null;
+            shipName = notBlank(f.getShipName()) ? f.getShipName().toLowerCase(Locale.ROOT) : null;
+            shipCompany = notBlank(f.getShipCompany()) ? f.getShipCompany().toLowerCase(Locale.ROOT) : null;
+        }
+
+        boolean matches(int s, TourFilterDto f) {
+            if (notBlank(f.getDestination()) && !f.getDestination().equals(destination[s])) return false;
+            if (departureCity != null && !contains(departureCityLower[s], departureCity)) return false;
+            if (shipName != null && !contains(shipNameLower[s], shipName)) return false;
+            if (shipCompany != null && !contains(shipCompanyLower[s], shipCompany)) return false;
+
+            if (minPrice != NO_LONG && (priceCents[s] == NO_LONG || priceCents[s] < minPrice)) return false;
+            if (maxPrice != NO_LONG && (priceCents[s] == NO_LONG || priceCents[s] > maxPrice)) return false;
+            if (Boolean.TRUE.equals(f.getHasDiscount())
+                    && (discountedPriceCents[s] == NO_LONG || priceCents[s] == NO_LONG
+                    || discountedPriceCents[s] >= priceCents[s])) return false;
+
+            if (!intAtLeast(duration[s], f.getMinDuration())) return false;
+            if (!intAtMost(duration[s], f.getMaxDuration())) return false;
+            if (!longAtLeast(startDate[s], startFrom) || !longAtMost(startDate[s], startTo)) return false;
+            if (!longAtLeast(endDate[s], endFrom) || !longAtMost(endDate[s], endTo)) return false;
+
+            if (!intAtLeast(availableSeats[s], f.getMinAvailableSeats())) return false;
+            if (!intAtMost(availableSeats[s], f.getMaxAvailableSeats())) return false;
+            if (Boolean.TRUE.equals(f.getHasAvailability()) && !intAtLeast(availableSeats[s], 1)) return false;
+            if (!intAtLeast(maxParticipants[s], f.getMinParticipants())) return false;
+            if (!intAtMost(minParticipants[s], f.getMaxParticipants())) return false;
+
+            if (Boolean.TRUE.equals(f.getIsBookable())) {
+                if (!intAtLeast(availableSeats[s], 1)) return false;
+                boolean beforeDeadline = bookingDeadline[s] != NO_LONG
+                        ? bookingDeadline[s] > now
+                        : startDate[s] != NO_LONG && startDate[s] > now;
+                if (!beforeDeadline) return false;
+            }
+            return true;
+        }
+    }
+
+    private void sort(int[] slots, String key, boolean ascending) {
+        Integer[] boxed = new Integer[slots.length];
+        for (int i = 0; i < slots.length; i++) boxed[i] = slots[i];
+        Arrays.sort(boxed, (a, b) -> {
+            int c = compareKey(a, b, key, ascending);
+            if (c != 0) return c;
+            return ascending ? Long.compare(ids[a], ids[b]) : Long.compare(ids[b], ids[a]);
+        });
+        for (int i = 0; i < slots.length; i++) slots[i] = boxed[i];
+    }
+
+    /** Postgres ordering: NULL sorts as the largest value (last ascending, first descending). */
+    private int compareKey(int a, int b, String key, boolean ascending) {
+        int c;
+        switch (key) {
+            case "id" -> c = Long.compare(ids[a], ids[b]);
+            case "createdAt" -> c = compareLong(createdAt[a], createdAt[b]);
+            case "updatedAt" -> c = compareLong(updatedAt[a], updatedAt[b]);
+            case "startDate" -> c = compareLong(startDate[a], startDate[b]);
+            case "endDate" -> c = compareLong(endDate[a], endDate[b]);
+            case "price" -> c = compareLong(priceCents[a], priceCents[b]);
+            case "discountedPrice" -> c = compareLong(discountedPriceCents[a], discountedPriceCents[b]);
+            case "duration" -> c = compareInt(duration[a], duration[b]);
+            case "availableSeats" -> c = compareInt(availableSeats[a], availableSeats[b]);
+            default -> c = 0;
+        }
+        return ascending ? c : -c;
+    }
+
+    private static int compareLong(long a, long b) {
+        if (a == b) return 0;
+        if (a == NO_LONG) return 1;
+        if (b == NO_LONG) return -1;
+        return Long.compare(a, b);
+    }
+
+    private static int compareInt(int a, int b) {
+        if (a == b) return 0;
+        if (a == NO_INT) return 1;
+        if (b == NO_INT) return -1;
+        return Integer.compare(a, b);
+    }
+
+    // ==================== Writes (callers hold the write lock) ====================
+
+    private void upsert(Tour tour) {
+        Integer existing = slotById.get(tour.getId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            unindex(slot);
+        } else {
+            slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+            ensureCapacity(slot + 1);
+            slotById.put(tour.getId(), slot);
+        }
+
+        ids[slot] = tour.getId();
+        priceCents[slot] = tour.getPrice() == null ? NO_LONG : cents(tour.getPrice(), RoundingMode.HALF_UP);
+        discountedPriceCents[slot] = tour.getDiscountedPrice() == null ? NO_LONG : cents(tour.getDiscountedPrice(), RoundingMode.HALF_UP);
+        duration[slot] = intOrNone(tour.getDuration());
+        availableSeats[slot] = intOrNone(tour.getAvailableSeats());
+        minParticipants[slot] = intOrNone(tour.getMinParticipants());
+        maxParticipants[slot] = intOrNone(tour.getMaxParticipants());
+        startDate[slot] = micros(tour.getStartDate());
+        endDate[slot] = micros(tour.getEndDate());
+        bookingDeadline[slot] = micros(tour.getBookingDeadline());
+        createdAt[slot] = micros(tour.getCreatedAt());
+        updatedAt[slot] = micros(tour.getUpdatedAt());
+
+        nameLower[slot] = lower(tour.getName());
+        destination[slot] = tour.getDestination();
+        departureCity[slot] = tour.getDepartureCity();
+        departureCityLower[slot] = lower(tour.getDepartureCity());
+        categoryOf[slot] = tour.getCategory();
+        eventTypeOf[slot] = tour.getEventType();
+        shipNameLower[slot] = lower(tour.getShipName());
+        shipCompanyLower[slot] = lower(tour.getShipCompany());
+
+        live.set(slot);
+        if (tour.getCategory() != null) byCategory.computeIfAbsent(tour.getCategory(), k -> new BitSet()).set(slot);
+        if (tour.getStatus() != null) byStatus.computeIfAbsent(tour.getStatus(), k -> new BitSet()).set(slot);
+        if (tour.getEventType() != null) byEventType.computeIfAbsent(tour.getEventType(), k -> new BitSet()).set(slot);
+        if (tour.getLanguage() != null) byLanguage.computeIfAbsent(tour.getLanguage(), k -> new BitSet()).set(slot);
+
+        String[] slotTokens = tokenize(lower(tour.getName()) + " " + lower(tour.getDestination())
+                + " " + lower(tour.getPlacesVisited()));
+        tokens[slot] = slotTokens;
+        for (String token : slotTokens) {
+            postings.computeIfAbsent(token, k -> new BitSet()).set(slot);
+        }
+    }
+
+    private void remove(Long tourId) {
+        Integer slot = slotById.remove(tourId);
+        if (slot == null) {
+            return;
+        }
+        unindex(slot);
+        nameLower[slot] = destination[slot] = null;
+        departureCity[slot] = departureCityLower[slot] = shipNameLower[slot] = shipCompanyLower[slot] = null;
+        categoryOf[slot] = null;
+        eventTypeOf[slot] = null;
+        freeSlots.push(slot);
+    }
+
+    private void unindex(int slot) {
+        live.clear(slot);
+        byCategory.values().forEach(b -> b.clear(slot));
+        byStatus.values().forEach(b -> b.clear(slot));
+        byEventType.values().forEach(b -> b.clear(slot));
+        byLanguage.values().forEach(b -> b.clear(slot));
+        if (tokens[slot] != null) {
+            for (String token : tokens[slot]) {
+                BitSet posting = postings.get(token);
+                if (posting != null) {
+                    posting.clear(slot);
+                    if (posting.isEmpty()) postings.remove(token);
+                }
+            }
+            tokens[slot] = null;
+        }
+    }
+
+    private void clear() {
+        slotById.clear();
+        freeSlots.clear();
+        live.clear();
+        slotCount = 0;
+        byCategory.clear();
+        byStatus.clear();
+        byEventType.clear();
+        byLanguage.clear();
+        postings.clear();
+        Arrays.fill(tokens, null);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        discountedPriceCents = Arrays.copyOf(discountedPriceCents, capacity);
+        duration = Arrays.copyOf(duration, capacity);
+        availableSeats = Arrays.copyOf(availableSeats, capacity);
+        minParticipants = Arrays.copyOf(minParticipants, capacity);
+        maxParticipants = Arrays.copyOf(maxParticipants, capacity);
+        startDate = Arrays.copyOf(startDate, capacity);
+        endDate = Arrays.copyOf(endDate, capacity);
+        bookingDeadline = Arrays.copyOf(bookingDeadline, capacity);
+        createdAt = Arrays.copyOf(createdAt, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+        nameLower = Arrays.copyOf(nameLower, capacity);
+        destination = Arrays.copyOf(destination, capacity);
+        departureCity = Arrays.copyOf(departureCity, capacity);
+        departureCityLower = Arrays.copyOf(departureCityLower, capacity);
+        categoryOf = Arrays.copyOf(categoryOf, capacity);
+        eventTypeOf = Arrays.copyOf(eventTypeOf, capacity);
+        shipNameLower = Arrays.copyOf(shipNameLower, capacity);
+        shipCompanyLower = Arrays.copyOf(shipCompanyLower, capacity);
+        tokens = Arrays.copyOf(tokens, capacity);
+    }
+
+    // ==================== Helpers ====================
+
+    private static String[] tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return new String[0];
+        }
+        return Arrays.stream(text.split("[^\\p{L}\\p{N}]+"))
+                .filter(t -> !t.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private static BitSet bits(BitSet set) {
+        return set != null ? set : new BitSet();
+    }
+
+    private static boolean contains(String haystack, String needle) {
+        return haystack != null && haystack.contains(needle);
+    }
+
+    private static boolean intAtLeast(int value, Integer min) {
+        return min == null || (value != NO_INT && value >= min);
+    }
+
+    private static boolean intAtMost(int value, Integer max) {
+        return max == null || (value != NO_INT && value <= max);
+    }
+
+    private static boolean longAtLeast(long value, long min) {
+        return min == NO_LONG || (value != NO_LONG && value >= min);
+    }
+
+    private static boolean longAtMost(long value, long max) {
+        return max == NO_LONG || (value != NO_LONG && value <= max);
+    }
+
+    private static int intOrNone(Integer value) {
+        return value == null ? NO_INT : value;
+    }
+
+    private static long cents(BigDecimal value, RoundingMode rounding) {
+        return value.movePointRight(2).setScale(0, rounding).longValue();
+    }
+
+    private static long micros(LocalDateTime time) {
+        if (time == null) {
+            return NO_LONG;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + time.getNano() / 1_000;
+    }
+
+    private static String lower(String s) {
+        return s == null ? null : s.toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean notBlank(String s) {
+        return s != null && !s.isBlank();
+    }
+}
@@ -10,10 +10,55 @@ import org.springframework.data.jpa.domain.Specification;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 public class TourSpecification {
 
+    /**
+     * Keyset (seek) predicate: rows strictly after the cursor in (key, id) order, i.e.
+     * {@code (key, id) < (:value, :id)} for descending pages and {@code >} for ascending
+     * ones, written as an OR so it works on every dialect. Rows with a null sort key
+     * cannot be positioned and are left out of keyset pages.
+     */
+    public static Specification<Tour> after(KeysetCursor cursor, String key, boolean ascending) {
+        return (root, query, cb) -> {
+            Path<LocalDateTime> keyPath = root.get(key);
+            Predicate notNull = cb.isNotNull(keyPath);
+            if (cursor == null) {
+                return notNull;
+            }
+            Path<Long> idPath = root.get("id");
+            Predicate beyondKey = ascending
+                    ? cb.greaterThan(keyPath, cursor.value())
+                    : cb.lessThan(keyPath, cursor.value());
+            Predicate beyondId = ascending
+                    ? cb.greaterThan(idPath, cursor.id())
+                    : cb.lessThan(idPath, cursor.id());
+            return cb.and(notNull, cb.or(beyondKey, cb.and(cb.equal(keyPath, cursor.value()), beyondId)));
+        };
+    }
+
+    /** Same rows as TourRepository.findByIsActiveTrueAndStatusAndStartDateAfter. */
+    public static Specification<Tour> published(LocalDateTime now) {
+        return (root, query, cb) -> cb.and(
+                cb.equal(root.get("isActive"), true),
+                cb.equal(root.get("status"), TourStatus.PUBLISHED),
+                cb.greaterThan(root.get("startDate"), now));
+    }
+
+    /** Restricts to the given ids (full-text matches); an empty list matches nothing. */
+    public static Specification<Tour> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> ids.isEmpty() ? cb.disjunction() : root.get("id").in(ids);
+    }
+
+    /** Every term occurs in the search document. LIKE stand-in for full-text search on H2. */
+    public static Specification<Tour> searchDocumentContainsAll(List<String> terms) {
+        return (root, query, cb) -> cb.and(terms.stream()
+                .map(term -> cb.like(cb.lower(root.get("searchDocument")), "%" + term + "%"))
+                .toArray(Predicate[]::new));
+    }
+
     public static Specification<Tour> withFilters(TourFilterDto filter) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
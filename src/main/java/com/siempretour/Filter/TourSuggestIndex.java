@@ -0,0 +1,285 @@
+package com.siempretour.Filter;
+
+import com.siempretour.Tours.Dto.TourSuggestionDto;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourRouteStop;
+import com.siempretour.Tours.TourChangedEvent;
+import com.siempretour.Tours.TourRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Typo-tolerant autocomplete over active tours: tour names, destination, destinations and
+ * route stop names, matched by character trigrams on {@link TextFolding folded} text, so
+ * "kyto" finds Kyoto and "japon" finds Japonya.
+ *
+ * Each distinct (type, language, text) is one term with a reference count (many tours share
+ * a destination); a term leaves the index when its last tour does. Terms are scored by
+ * trigram overlap (Dice coefficient) with a bonus for prefix matches. Rebuilt per tour
+ * from {@link TourChangedEvent} after commit.
+ */
+@Slf4j
+@Component
+public class TourSuggestIndex {
+
+    public static final int DEFAULT_LIMIT = 8;
+    public static final int MAX_LIMIT = 20;
+
+    private static final double MIN_SIMILARITY = 0.3;
+    private static final double PREFIX_BONUS = 0.5;
+    private static final double WORD_PREFIX_BONUS = 0.25;
+
+    private static final String TYPE_TOUR = "TOUR";
+    private static final String TYPE_DESTINATION = "DESTINATION";
+    private static final String TYPE_PLACE = "PLACE";
+
+    private final TourRepository tourRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final List<Term> terms = new ArrayList<>();
+    private final Deque<Integer> freeIds = new ArrayDeque<>();
+    private final Map<String, Integer> idByKey = new HashMap<>();
+    private final Map<String, BitSet> postings = new HashMap<>();
+    private final Map<Long, Set<Integer>> termsByTour = new HashMap<>();
+
+    public TourSuggestIndex(TourRepository tourRepository) {
+        this.tourRepository = tourRepository;
+    }
+
+    private static final class Term {
+        final String key;
+        final String text;
+        final String folded;
+        final String type;
+        final String slug;
+        final String language;
+        final String[] grams;
+        int refs;
+
+        Term(String key, String text, String folded, String type, String slug, String language) {
+            this.key = key;
+            this.text = text;
+            this.folded = folded;
+            this.type = type;
+            this.slug = slug;
+            this.language = language;
+            this.grams = trigrams(folded);
+        }
+    }
+
+    // ==================== Lifecycle ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadOnStartup() {
+        List<Tour> tours = tourRepository.findByIsActiveTrue();
+        List<Long> ids = tours.stream().map(Tour::getId).collect(Collectors.toList());
+        if (!ids.isEmpty()) {
+            tourRepository.fetchDestinations(ids);
+            tourRepository.fetchRoute(ids);
+        }
+        lock.writeLock().lock();
+        try {
+            tours.forEach(this::index);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Tour suggest index loaded with {} terms from {} tours", idByKey.size(), tours.size());
+    }
+
+    // Seat changes never touch suggested terms; filtering them in the condition also keeps
+    // approvals from opening a second (REQUIRES_NEW) connection per commit
+    @TransactionalEventListener(fallbackExecution = true,
+            condition = "#event.kind() != T(com.siempretour.Tours.TourChangedEvent$Kind).SEATS")
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onTourChanged(TourChangedEvent event) {
+        if (event.tourId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // Read under the lock so two events for the same tour cannot apply an older read last
+            Tour tour = tourRepository.findById(event.tourId()).orElse(null);
+            unindex(event.tourId());
+            if (tour != null && Boolean.TRUE.equals(tour.getIsActive())) {
+                index(tour);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ==================== Queries ====================
+
+    /** Best matches for the query, optionally limited to one language. */
+    public List<TourSuggestionDto> suggest(String query, String language, int limit) {
+        String q = TextFolding.fold(query);
+        if (q.isEmpty()) {
+            return List.of();
+        }
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        String[] queryGrams = trigrams(q);
+
+        lock.readLock().lock();
+        try {
+            int[] shared = new int[terms.size()];
+            BitSet touched = new BitSet(terms.size());
+            for (String gram : queryGrams) {
+                BitSet posting = postings.get(gram);
+                if (posting == null) continue;
+                for (int id = posting.nextSetBit(0); id >= 0; id = posting.nextSetBit(id + 1)) {
+                    shared[id]++;
+                }
+                touched.or(posting);
+            }
+
+            // Destinations and places are indexed once per language: keep the best copy of each,
+            // then select the top k without sorting every candidate (a common word touches most tours)
+            String wordStart = " " + q;
+            Map<String, Scored> bestShared = new HashMap<>();
+            PriorityQueue<Scored> top = new PriorityQueue<>(k + 1, RANKING.reversed());
+            for (int id = touched.nextSetBit(0); id >= 0; id = touched.nextSetBit(id + 1)) {
+                Term term = terms.get(id);
+                if (term == null || (language != null && !language.isBlank() && !language.equals(term.language))) {
+                    continue;
+                }
+                double similarity = 2.0 * shared[id] / (queryGrams.length + term.grams.length);
+                double score = similarity;
+                // A term holding q at a word start shares all of q's trigrams but the two padded ends
+                boolean mayContain = shared[id] >= queryGrams.length - 2;
+                if (mayContain && term.folded.startsWith(q)) {
+                    score += PREFIX_BONUS;
+                } else if (mayContain && term.folded.contains(wordStart)) {
+                    score += WORD_PREFIX_BONUS;
+                } else if (similarity < MIN_SIMILARITY) {
+                    continue;
+                }
+                if (TYPE_TOUR.equals(term.type)) {
+                    if (top.size() < k || score >= top.peek().score) {
+                        offer(top, new Scored(term, score), k);
+                    }
+                } else {
+                    bestShared.merge(term.type + "|" + term.folded, new Scored(term, score),
+                            (a, b) -> RANKING.compare(a, b) <= 0 ? a : b);
+                }
+            }
+            bestShared.values().forEach(candidate -> offer(top, candidate, k));
+
+            List<Scored> ranked = new ArrayList<>(top);
+            ranked.sort(RANKING);
+            List<TourSuggestionDto> result = new ArrayList<>(ranked.size());
+            for (Scored s : ranked) {
+                result.add(new TourSuggestionDto(s.term.text, s.term.type, s.term.slug, s.term.language));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Scored(Term term, double score) {
+    }
+
+    /** Best first: score, then terms shared by more tours, then alphabetical. */
+    private static final Comparator<Scored> RANKING = Comparator
+            .comparingDouble(Scored::score).reversed()
+            .thenComparing(Comparator.comparingInt((Scored s) -> s.term.refs).reversed())
+            .thenComparing(s -> s.term.text);
+
+    private static void offer(PriorityQueue<Scored> top, Scored candidate, int k) {
+        if (top.size() < k) {
+            top.add(candidate);
+        } else if (RANKING.compare(candidate, top.peek()) < 0) {
+            top.poll();
+            top.add(candidate);
+        }
+    }
+
+    // ==================== Writes (callers hold the write lock) ====================
+
+    private void index(Tour tour) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        String language = tour.getLanguage();
+        addTerm(ids, tour.getName(), TYPE_TOUR, tour.getSlug(), language);
+        addTerm(ids, tour.getDestination(), TYPE_DESTINATION, null, language);
+        if (tour.getDestinations() != null) {
+            tour.getDestinations().forEach(d -> addTerm(ids, d, TYPE_DESTINATION, null, language));
+        }
+        if (tour.getRoute() != null) {
+            for (TourRouteStop stop : tour.getRoute()) {
+                addTerm(ids, stop.getName(), TYPE_PLACE, null, language);
+            }
+        }
+        termsByTour.put(tour.getId(), ids);
+    }
+
+    private void addTerm(Set<Integer> tourTerms, String text, String type, String slug, String language) {
+        String folded = TextFolding.fold(text);
+        if (folded.isEmpty()) {
+            return;
+        }
+        String key = type + "|" + language + "|" + (slug != null ? slug : folded);
+        Integer id = idByKey.get(key);
+        if (id == null) {
+            id = freeIds.isEmpty() ? terms.size() : freeIds.pop();
+            Term term = new Term(key, text.strip(), folded, type, slug, language);
+            if (id == terms.size()) terms.add(term); else terms.set(id, term);
+            idByKey.put(key, id);
+            for (String gram : term.grams) {
+                postings.computeIfAbsent(gram, g -> new BitSet()).set(id);
+            }
+        }
+        if (tourTerms.add(id)) {
+            terms.get(id).refs++;
+        }
+    }
+
+    private void unindex(Long tourId) {
+        Set<Integer> ids = termsByTour.remove(tourId);
+        if (ids == null) {
+            return;
+        }
+        for (int id : ids) {
+            Term term = terms.get(id);
+            if (--term.refs > 0) continue;
+            for (String gram : term.grams) {
+                BitSet posting = postings.get(gram);
+                if (posting == null) continue;
+                posting.clear(id);
+                if (posting.isEmpty()) postings.remove(gram);
+            }
+            idByKey.remove(term.key);
+            terms.set(id, null);
+            freeIds.push(id);
+        }
+    }
+
+    /** Distinct trigrams of "  text " (padding makes short and prefix queries match word starts). */
+    private static String[] trigrams(String folded) {
+        String padded = "  " + folded + " ";
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,423 @@
+package com.siempretour.Filter;
+
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourDay;
+import com.siempretour.Tours.Models.TourStatus;
+import com.siempretour.Tours.TourChangedEvent;
+import com.siempretour.Tours.TourRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Relevance search over published tours for the chat `search_tours` tool, so "wine tasting"
+ * or "balayı asya" finds tours that mention those words anywhere in name, destination,
+ * placesVisited, generalInfo or the day programme, not only as a literal substring.
+ *
+ * Text is {@link TextFolding folded} and split into words; every word and every character
+ * trigram of it is hashed into a fixed number of buckets (trigrams catch suffixes such as
+ * Japon/Japonya). A tour's vector holds field-weighted, log-damped counts, L2-normalized,
+ * in one flat float array (slot * dimensions). Queries are short, so they are scored as a
+ * sparse vector against that array with the IDF applied on the query side (squared, which
+ * equals weighting both sides); document frequencies are kept per bucket so a single tour
+ * can be added or removed without reweighting the rest.
+ *
+ * Hashed buckets collide, and common trigrams ("ya " in Japonya, İtalya, Rusya) give
+ * unrelated tours a small score, so a tour is only returned when it also matches at least
+ * one informative query word (one that is not in more than half of the tours): the whole
+ * word, or for words of MIN_PARTIAL_LENGTH+ letters most of its trigrams (Japon/Japonya).
+ * That check uses exact per-tour word and trigram hash sets, not the buckets.
+ *
+ * Loaded at startup and updated per tour from {@link TourChangedEvent} after commit.
+ */
+@Slf4j
+@Component
+public class TourVectorIndex {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final float MIN_SCORE = 0.05f;
+    private static final float MIN_TRIGRAM_COVERAGE = 0.6f;
+    private static final int MIN_PARTIAL_LENGTH = 4;
+    private static final int TRIGRAM_SEED = 0x5bd1e995;
+    private static final float TRIGRAM_WEIGHT = 0.5f;
+    private static final float NAME_WEIGHT = 3f;
+    private static final float DESTINATION_WEIGHT = 3f;
+    private static final float PLACES_WEIGHT = 2f;
+    private static final float TEXT_WEIGHT = 1f;
+    private static final Pattern HTML_TAGS = Pattern.compile("<[^>]*>");
+
+    private final TourRepository tourRepository;
+    private final boolean enabled;
+    private final int dimensions;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean loaded;
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final BitSet live = new BitSet();
+    private final Map<String, BitSet> byLanguage = new HashMap<>();
+    private int slotCount;
+
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[][] buckets = new int[INITIAL_CAPACITY][]; // non-zero buckets per slot, for df bookkeeping
+    private int[][] wordHashes = new int[INITIAL_CAPACITY][]; // sorted, for the word match check
+    private int[][] trigramHashes = new int[INITIAL_CAPACITY][]; // sorted
+    private float[] vectors;
+    private final int[] documentFrequency;
+    private final Map<Integer, Integer> wordFrequency = new HashMap<>();
+
+    public TourVectorIndex(
+            TourRepository tourRepository,
+            @Value("${chat.retrieval.enabled:true}") boolean enabled,
+            @Value("${chat.retrieval.dimensions:1024}") int dimensions) {
+        if (Integer.bitCount(dimensions) != 1) {
+            throw new IllegalArgumentException("chat.retrieval.dimensions must be a power of two");
+        }
+        this.tourRepository = tourRepository;
+        this.enabled = enabled;
+        this.dimensions = dimensions;
+        this.vectors = new float[INITIAL_CAPACITY * dimensions];
+        this.documentFrequency = new int[dimensions];
+    }
+
+    // ==================== Lifecycle ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        List<Tour> tours = tourRepository.findByIsActiveTrue();
+        List<Long> tourIds = tours.stream().map(Tour::getId).toList();
+        if (!tourIds.isEmpty()) {
+            tourRepository.fetchDayInfo(tourIds);
+        }
+        int indexed = 0;
+        lock.writeLock().lock();
+        try {
+            for (Tour tour : tours) {
+                if (indexable(tour)) {
+                    upsert(tour);
+                    indexed++;
+                }
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Tour vector index loaded with {} published tours", indexed);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        // Seat changes only matter when they flip the status (e.g. to SOLD_OUT), so they are re-read too.
+        // No transaction of its own: seat events follow every approval, and a REQUIRES_NEW here
+        // would hold a second pooled connection per committing request.
+        if (!loaded || event.tourId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            // Read under the lock (day programme fetched with it) so an older read is never applied last
+            List<Tour> found = tourRepository.fetchDayInfo(List.of(event.tourId()));
+            Tour tour = found.isEmpty() ? null : found.get(0);
+            if (tour == null || !indexable(tour)) {
+                remove(event.tourId());
+            } else {
+                upsert(tour);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && loaded;
+    }
+
+    // ==================== Queries ====================
+
+    /** Ids of the best-matching published tours, best first; language null searches all languages. */
+    public List<Long> search(String query, String language, int limit) {
+        String folded = TextFolding.fold(query);
+        if (folded.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        float[] queryCounts = new float[dimensions];
+        addText(queryCounts, folded, 1f, null, null);
+
+        lock.readLock().lock();
+        try {
+            int documents = live.cardinality();
+            if (documents == 0) {
+                return List.of();
+            }
+            // Sparse query: bucket indexes and their idf²-weighted counts
+            int[] queryBuckets = new int[dimensions];
+            float[] queryWeights = new float[dimensions];
+            int n = 0;
+            for (int b = 0; b < dimensions; b++) {
+                if (queryCounts[b] == 0f || documentFrequency[b] == 0) continue;
+                float idf = (float) Math.log(1.0 + (double) documents / documentFrequency[b]);
+                queryBuckets[n] = b;
+                queryWeights[n] = (float) Math.log1p(queryCounts[b]) * idf * idf;
+                n++;
+            }
+            if (n == 0) {
+                return List.of();
+            }
+            float norm = 0f;
+            for (int i = 0; i < n; i++) norm += queryWeights[i] * queryWeights[i];
+            norm = (float) Math.sqrt(norm);
+            for (int i = 0; i < n; i++) queryWeights[i] /= norm;
+
+            List<QueryWord> required = requiredWords(folded, documents);
+
+            BitSet candidates = live;
+            if (language != null && !language.isBlank()) {
+                candidates = byLanguage.get(language);
+                if (candidates == null) {
+                    return List.of();
+                }
+            }
+
+            // Min-heap of the best `limit` slots, ordered by score then lower id
+            PriorityQueue<Scored> best = new PriorityQueue<>(limit + 1, (a, b) -> {
+                int c = Float.compare(a.score, b.score);
+                return c != 0 ? c : Long.compare(ids[b.slot], ids[a.slot]);
+            });
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                float score = dot(queryBuckets, queryWeights, n, slot * dimensions);
+                if (score < MIN_SCORE || !matchesAnyWord(slot, required)) continue;
+                best.add(new Scored(slot, score));
+                if (best.size() > limit) best.poll();
+            }
+
+            Long[] result = new Long[best.size()];
+            for (int i = result.length - 1; i >= 0; i--) {
+                result[i] = ids[best.poll().slot];
+            }
+            return Arrays.asList(result);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private float dot(int[] queryBuckets, float[] queryWeights, int n, int base) {
+        float sum = 0f;
+        for (int i = 0; i < n; i++) {
+            sum += queryWeights[i] * vectors[base + queryBuckets[i]];
+        }
+        return sum;
+    }
+
+    private record Scored(int slot, float score) {
+    }
+
+    private record QueryWord(int hash, int[] trigrams) {
+    }
+
+    /** Query words the match check uses: the informative ones, or all when every word is common. */
+    private List<QueryWord> requiredWords(String folded, int documents) {
+        List<QueryWord> all = new ArrayList<>();
+        List<QueryWord> informative = new ArrayList<>();
+        for (String word : folded.split(" ")) {
+            if (word.isEmpty()) continue;
+            QueryWord queryWord = new QueryWord(word.hashCode(), trigrams(word));
+            all.add(queryWord);
+            if (wordFrequency.getOrDefault(queryWord.hash(), 0) * 2 <= documents) {
+                informative.add(queryWord);
+            }
+        }
+        return informative.isEmpty() ? all : informative;
+    }
+
+    private boolean matchesAnyWord(int slot, List<QueryWord> required) {
+        for (QueryWord word : required) {
+            if (Arrays.binarySearch(wordHashes[slot], word.hash()) >= 0) {
+                return true;
+            }
+            // A word has as many padded trigrams as letters (" japon " -> 5)
+            if (word.trigrams().length < MIN_PARTIAL_LENGTH) continue;
+            int found = 0;
+            for (int trigram : word.trigrams()) {
+                if (Arrays.binarySearch(trigramHashes[slot], trigram) >= 0) found++;
+            }
+            if (found >= MIN_TRIGRAM_COVERAGE * word.trigrams().length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ==================== Writes (callers hold the write lock) ====================
+
+    private void upsert(Tour tour) {
+        Integer existing = slotById.get(tour.getId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            unindex(slot);
+        } else {
+            slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+            ensureCapacity(slot + 1);
+            slotById.put(tour.getId(), slot);
+        }
+
+        float[] counts = new float[dimensions];
+        Set<Integer> words = new HashSet<>();
+        Set<Integer> grams = new HashSet<>();
+        addText(counts, TextFolding.fold(tour.getName()), NAME_WEIGHT, words, grams);
+        addText(counts, TextFolding.fold(tour.getDestination()), DESTINATION_WEIGHT, words, grams);
+        addText(counts, TextFolding.fold(tour.getPlacesVisited()), PLACES_WEIGHT, words, grams);
+        addText(counts, TextFolding.fold(stripHtml(tour.getGeneralInfo())), TEXT_WEIGHT, words, grams);
+        for (TourDay day : tour.getDayInfo()) {
+            addText(counts, TextFolding.fold(day.getTitle()), TEXT_WEIGHT, words, grams);
+            addText(counts, TextFolding.fold(stripHtml(day.getDescription())), TEXT_WEIGHT, words, grams);
+        }
+        wordHashes[slot] = sorted(words);
+        trigramHashes[slot] = sorted(grams);
+        for (int word : wordHashes[slot]) {
+            wordFrequency.merge(word, 1, Integer::sum);
+        }
+
+        int base = slot * dimensions;
+        int[] nonZero = new int[dimensions];
+        int n = 0;
+        float norm = 0f;
+        for (int b = 0; b < dimensions; b++) {
+            if (counts[b] == 0f) continue;
+            float weight = (float) Math.log1p(counts[b]);
+            vectors[base + b] = weight;
+            norm += weight * weight;
+            nonZero[n++] = b;
+            documentFrequency[b]++;
+        }
+        if (norm > 0f) {
+            float inverse = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < n; i++) vectors[base + nonZero[i]] *= inverse;
+        }
+        buckets[slot] = Arrays.copyOf(nonZero, n);
+        ids[slot] = tour.getId();
+        live.set(slot);
+        byLanguage.computeIfAbsent(tour.getLanguage() != null ? tour.getLanguage() : "", k -> new BitSet()).set(slot);
+    }
+
+    private void remove(Long tourId) {
+        Integer slot = slotById.remove(tourId);
+        if (slot == null) {
+            return;
+        }
+        unindex(slot);
+        freeSlots.push(slot);
+    }
+
+    private void unindex(int slot) {
+        live.clear(slot);
+        byLanguage.values().forEach(b -> b.clear(slot));
+        if (buckets[slot] != null) {
+            for (int b : buckets[slot]) {
+                documentFrequency[b]--;
+            }
+            buckets[slot] = null;
+        }
+        if (wordHashes[slot] != null) {
+            for (int word : wordHashes[slot]) {
+                wordFrequency.computeIfPresent(word, (k, count) -> count == 1 ? null : count - 1);
+            }
+            wordHashes[slot] = null;
+            trigramHashes[slot] = null;
+        }
+        Arrays.fill(vectors, slot * dimensions, (slot + 1) * dimensions, 0f);
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        buckets = Arrays.copyOf(buckets, capacity);
+        wordHashes = Arrays.copyOf(wordHashes, capacity);
+        trigramHashes = Arrays.copyOf(trigramHashes, capacity);
+        vectors = Arrays.copyOf(vectors, capacity * dimensions);
+    }
+
+    // ==================== Helpers ====================
+
+    private static boolean indexable(Tour tour) {
+        return Boolean.TRUE.equals(tour.getIsActive()) && tour.getStatus() == TourStatus.PUBLISHED;
+    }
+
+    /**
+     * Adds the word and trigram features of already folded text to the bucket counts and,
+     * when given, their exact hashes to the word / trigram sets.
+     */
+    private void addText(float[] counts, String folded, float weight, Set<Integer> words, Set<Integer> grams) {
+        if (folded.isEmpty()) {
+            return;
+        }
+        int mask = dimensions - 1;
+        for (String word : folded.split(" ")) {
+            if (word.isEmpty()) continue;
+            counts[mix(word.hashCode()) & mask] += weight;
+            if (words != null) words.add(word.hashCode());
+            for (int trigram : trigrams(word)) {
+                counts[mix(trigram) & mask] += weight * TRIGRAM_WEIGHT;
+                if (grams != null) grams.add(trigram);
+            }
+        }
+    }
+
+    /** Hashes of the character trigrams of " word ". */
+    private static int[] trigrams(String word) {
+        String padded = " " + word + " ";
+        int[] hashes = new int[padded.length() - 2];
+        for (int i = 0; i < hashes.length; i++) {
+            hashes[i] = padded.substring(i, i + 3).hashCode() ^ TRIGRAM_SEED;
+        }
+        return hashes;
+    }
+
+    private static int[] sorted(Set<Integer> values) {
+        int[] array = new int[values.size()];
+        int i = 0;
+        for (int value : values) array[i++] = value;
+        Arrays.sort(array);
+        return array;
+    }
+
+    // Murmur3 finalizer, spreads String.hashCode over the low bits used as bucket index
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static String stripHtml(String html) {
+        return html == null ? null : HTML_TAGS.matcher(html).replaceAll(" ");
+    }
+}
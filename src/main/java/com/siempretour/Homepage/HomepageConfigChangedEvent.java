@@ -0,0 +1,5 @@
+package com.siempretour.Homepage;
+
+/** Published when the admin saves the homepage config; cached payloads are rebuilt after commit. */
+public record HomepageConfigChangedEvent() {
+}
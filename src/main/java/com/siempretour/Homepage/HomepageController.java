@@ -1,9 +1,10 @@
 package com.siempretour.Homepage;
 
+import com.siempretour.Config.HttpCaching;
 import com.siempretour.Homepage.Dto.HomepageConfigDto;
-import com.siempretour.Homepage.Dto.HomepagePublicDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,12 +14,21 @@ import org.springframework.web.bind.annotation.*;
 public class HomepageController {
 
     private final HomepageService homepageService;
+    private final HttpCaching httpCaching;
 
-    /** Public: drives the two dynamic sections on index.html. */
+    /**
+     * Public: drives the two dynamic sections on index.html. Served from pre-serialized bytes;
+     * a matching If-None-Match gets a 304 (handled by Spring for ETag'd ResponseEntity GETs).
+     */
     @GetMapping("/api/homepage")
-    public ResponseEntity<HomepagePublicDto> getHomepage(
+    public ResponseEntity<byte[]> getHomepage(
             @RequestParam(defaultValue = "tr") String lang) {
-        return ResponseEntity.ok(homepageService.getPublic(lang));
+        HomepagePayload payload = homepageService.getPublicPayload(lang);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(payload.etag())
+                .cacheControl(httpCaching.publicCacheControl())
+                .body(payload.body());
     }
 
     /** Admin: load the raw config into the editor. */
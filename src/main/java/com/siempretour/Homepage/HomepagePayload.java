@@ -0,0 +1,10 @@
+package com.siempretour.Homepage;
+
+import java.util.Set;
+
+/**
+ * Pre-serialized GET /api/homepage body for one language, with its strong ETag (a hash of
+ * the bytes) and the tour slugs it references.
+ */
+public record HomepagePayload(byte[] body, String etag, Set<String> slugs) {
+}
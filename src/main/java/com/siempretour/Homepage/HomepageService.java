@@ -7,24 +7,49 @@ import com.siempretour.Homepage.Dto.HomepagePublicDto;
 import com.siempretour.Homepage.Dto.Section1Card;
 import com.siempretour.Homepage.Dto.Section2Tour;
 import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.TourChangedEvent;
 import com.siempretour.Tours.TourRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class HomepageService {
 
+    private static final String DEFAULT_LANGUAGE = "tr";
+    // Languages the site is published in; anything else in ?lang= gets the default payload
+    private static final Set<String> LANGUAGES = Set.of("tr", "en");
+
     private final HomepageRepository homepageRepository;
     private final TourRepository tourRepository;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // Serialized public payload per language. Rebuilt (not just dropped) after a config save or
+    // a write to a referenced tour, so index.html never waits for the rebuild.
+    private final ConcurrentHashMap<String, HomepagePayload> payloads = new ConcurrentHashMap<>();
+    // Bumped by every committed config or tour write; a payload whose build overlapped a bump is not kept
+    private final AtomicLong generation = new AtomicLong();
+
     /** Raw config for the admin editor (GET /api/admin/homepage). */
     @Transactional(readOnly = true)
     public HomepageConfigDto getConfig() {
@@ -46,22 +71,107 @@ public class HomepageService {
         entity.setSection1Json(writeJson(dto.getSection1()));
         entity.setSection2Json(writeJson(dto.getSection2()));
         homepageRepository.save(entity);
+        eventPublisher.publishEvent(new HomepageConfigChangedEvent());
         return getConfig();
     }
 
+    /** Serialized GET /api/homepage body; served from memory once built for the language. */
+    public HomepagePayload getPublicPayload(String lang) {
+        String language = normalizeLanguage(lang);
+        HomepagePayload cached = payloads.get(language);
+        if (cached != null) {
+            return cached;
+        }
+        // normalizeLanguage only returns supported languages, so this holds at most one entry each
+        long builtAt = generation.get();
+        HomepagePayload payload = buildPayload(language);
+        store(language, payload, builtAt);
+        return payload;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onConfigChanged(HomepageConfigChangedEvent event) {
+        generation.incrementAndGet();
+        rebuildPayloads();
+    }
+
+    // Cards show no seat data. Seat events are dropped in the condition, before the
+    // REQUIRES_NEW transaction would take a second pooled connection.
+    @TransactionalEventListener(fallbackExecution = true,
+            condition = "#event.kind() != T(com.siempretour.Tours.TourChangedEvent$Kind).SEATS")
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onTourChanged(TourChangedEvent event) {
+        // Bumped even when no stored payload references the tour: a first build may be running
+        generation.incrementAndGet();
+        boolean referenced = payloads.values().stream().anyMatch(payload ->
+                payload.slugs().contains(event.slug()) || payload.slugs().contains(event.previousSlug()));
+        if (referenced) {
+            rebuildPayloads();
+        }
+    }
+
+    private void rebuildPayloads() {
+        for (String language : payloads.keySet()) {
+            long builtAt = generation.get();
+            store(language, buildPayload(language), builtAt);
+        }
+        log.debug("Rebuilt homepage payloads for {}", payloads.keySet());
+    }
+
+    /**
+     * Stores a payload whose reads started at generation {@code builtAt}, and drops it again if a
+     * write committed meanwhile: that write's listener either bumped the generation before this
+     * check or runs its rebuild after the put.
+     */
+    private void store(String language, HomepagePayload payload, long builtAt) {
+        payloads.put(language, payload);
+        if (generation.get() != builtAt) {
+            payloads.remove(language, payload);
+        }
+    }
+
+    private HomepagePayload buildPayload(String language) {
+        HomepageConfigDto config = getConfig();
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(resolve(config, language));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize homepage payload", e);
+        }
+        Set<String> slugs = new HashSet<>(config.getSection2());
+        return new HomepagePayload(body, etag(body), slugs);
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     /** Resolved payload for index.html (GET /api/homepage). */
     @Transactional(readOnly = true)
     public HomepagePublicDto getPublic(String lang) {
-        String language = (lang == null || lang.isBlank()) ? "tr" : lang.toLowerCase();
-        HomepageConfigDto config = getConfig();
+        return resolve(getConfig(), normalizeLanguage(lang));
+    }
+
+    private static String normalizeLanguage(String lang) {
+        String language = lang == null ? "" : lang.trim().toLowerCase(Locale.ROOT);
+        return LANGUAGES.contains(language) ? language : DEFAULT_LANGUAGE;
+    }
 
+    private HomepagePublicDto resolve(HomepageConfigDto config, String language) {
         HomepagePublicDto out = new HomepagePublicDto();
         out.setSection1(config.getSection1());
 
+        Map<String, Tour> toursBySlug = resolveTours(config.getSection2(), language);
         List<Section2Tour> resolved = new ArrayList<>();
         for (String slug : config.getSection2()) {
             if (slug == null || slug.isBlank()) continue;
-            Tour tour = resolveTour(slug, language);
+            Tour tour = toursBySlug.get(slug);
             if (tour == null) continue;
             Section2Tour card = new Section2Tour();
             card.setSlug(tour.getSlug());
@@ -74,12 +184,29 @@ public class HomepageService {
         return out;
     }
 
-    /** Prefer the active tour in the requested language; fall back to any matching slug. */
-    private Tour resolveTour(String slug, String language) {
-        return tourRepository.findBySlugAndLanguageAndIsActiveTrue(slug, language)
-                .or(() -> tourRepository.findBySlugAndLanguage(slug, language))
-                .or(() -> tourRepository.findBySlug(slug))
-                .orElse(null);
+    /**
+     * Resolves all carousel slugs with one query. Per slug, prefer the active tour in the
+     * requested language, then any tour in that language, then any tour with the slug.
+     */
+    private Map<String, Tour> resolveTours(List<String> slugs, String language) {
+        Set<String> wanted = new HashSet<>();
+        for (String slug : slugs) {
+            if (slug != null && !slug.isBlank()) wanted.add(slug);
+        }
+        Map<String, Tour> best = new HashMap<>();
+        if (wanted.isEmpty()) return best;
+        for (Tour tour : tourRepository.findBySlugInOrderByIdAsc(wanted)) {
+            Tour current = best.get(tour.getSlug());
+            if (current == null || preference(tour, language) > preference(current, language)) {
+                best.put(tour.getSlug(), tour);
+            }
+        }
+        return best;
+    }
+
+    private static int preference(Tour tour, String language) {
+        if (!language.equals(tour.getLanguage())) return 0;
+        return Boolean.TRUE.equals(tour.getIsActive()) ? 2 : 1;
     }
 
     private <T> List<T> readList(String json, TypeReference<List<T>> type) {
@@ -1,5 +1,6 @@
 package com.siempretour.Review;
 
+import com.siempretour.Config.HttpCaching;
 import com.siempretour.Review.Dto.ReviewCreateDto;
 import com.siempretour.Review.Dto.ReviewModerationDto;
 import com.siempretour.Review.Dto.ReviewResponseDto;
@@ -9,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,12 +21,18 @@ import java.util.List;
 public class ReviewController {
 
     private final ReviewService reviewService;
+    private final HttpCaching httpCaching;
 
     @GetMapping("/by-tour/{tourId}")
     public ResponseEntity<List<ReviewResponseDto>> getReviewsByTour(
             @PathVariable Long tourId,
-            @RequestParam(defaultValue = "tr") String lang) {
-        return ResponseEntity.ok(reviewService.getApprovedReviewsByTour(tourId, lang));
+            @RequestParam(defaultValue = "tr") String lang,
+            WebRequest request) {
+        ReviewRepository.ReviewStamp stamp = reviewService.getReviewStamp(tourId, lang);
+        String etag = HttpCaching.etag("reviews", tourId, stamp.getReviews(),
+                HttpCaching.epochMillis(stamp.getLastModified()));
+        return httpCaching.respond(request, etag, stamp.getLastModified(),
+                () -> reviewService.getApprovedReviewsByTour(tourId, lang));
     }
 
     @GetMapping("/by-destination")
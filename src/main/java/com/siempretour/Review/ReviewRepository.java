@@ -1,8 +1,11 @@
 package com.siempretour.Review;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -13,4 +16,15 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByDestinationIgnoreCaseAndStatusAndLanguageOrderByCreatedAtDesc(String destination, ReviewStatus status, String language);
 
     List<Review> findByStatusOrderByCreatedAtAsc(ReviewStatus status);
+
+    // Validator for conditional GETs of a tour's reviews: any new or moderated review changes it
+    @Query("SELECT COUNT(r) AS reviews, MAX(r.updatedAt) AS lastModified FROM Review r " +
+            "WHERE r.tour.id = :tourId AND r.language = :language")
+    ReviewStamp findStampByTourIdAndLanguage(@Param("tourId") Long tourId, @Param("language") String language);
+
+    interface ReviewStamp {
+        long getReviews();
+
+        LocalDateTime getLastModified();
+    }
 }
@@ -39,6 +39,10 @@ public class ReviewService {
                 .collect(Collectors.toList());
     }
 
+    public ReviewRepository.ReviewStamp getReviewStamp(Long tourId, String lang) {
+        return reviewRepository.findStampByTourIdAndLanguage(tourId, normalizeLanguage(lang));
+    }
+
     public List<ReviewResponseDto> getApprovedReviewsByDestination(String destination, String lang) {
         return reviewRepository.findByDestinationIgnoreCaseAndStatusAndLanguageOrderByCreatedAtDesc(
                         destination, ReviewStatus.APPROVED, normalizeLanguage(lang))
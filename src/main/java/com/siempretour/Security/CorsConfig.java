@@ -50,7 +50,8 @@ public class CorsConfig {
                 "Access-Control-Allow-Origin",
                 "Access-Control-Allow-Credentials",
                 "X-Rate-Limit-Remaining",
-                "X-Rate-Limit-Retry-After-Seconds"
+                "X-Rate-Limit-Retry-After-Seconds",
+                "X-Catalogue-Version"
         ));
 
         // Allow credentials (cookies, authorization headers)
@@ -1,5 +1,6 @@
 package com.siempretour.Security;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,6 +29,9 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(s -> s.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches (streamed exports) finish a request that was already authorized
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Public endpoints
                         .requestMatchers(
                                 "/api/auth/register",
@@ -37,6 +41,7 @@ public class SecurityConfig {
                                 "/api/auth/reset-password"
                         ).permitAll()
                         .requestMatchers("/actuator/health", "/health", "/uploads/**").permitAll()
+                        .requestMatchers("/actuator/metrics/**").hasRole("ADMIN")
 
                         // Public tour endpoints (including filter/search for browsing)
                         .requestMatchers("/api/tours/published", "/api/tours/active").permitAll()
@@ -45,6 +50,7 @@ public class SecurityConfig {
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/tours/by-destination").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/tours/by-destination/paged").permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/tours/by-slug/**").permitAll()
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/tours/suggest").permitAll()
 
                         // Public homepage config (drives index.html dynamic sections)
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/homepage").permitAll()
@@ -58,19 +64,23 @@ public class SecurityConfig {
                         .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/contact").permitAll()
 
                         // Public chat widget endpoint
-                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/chat").permitAll()
+                        .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/chat", "/api/chat/stream").permitAll()
+
+                        // Public "seats left" counter for tour pages
+                        .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/bookings/availability/*").permitAll()
 
                         // Admin-only booking endpoints (must precede the broader authenticated rules
                         // so that GET /api/bookings (list-all) is locked down to admins. The exact-match
                         // pattern "/api/bookings" only catches the root collection; nested user routes
                         // like /api/bookings/me and /api/bookings/{id} are handled below.)
-                        .requestMatchers("/api/bookings/pending", "/api/bookings/all", "/api/bookings/tour/**").hasRole("ADMIN")
+                        .requestMatchers("/api/bookings/pending", "/api/bookings/pending/**", "/api/bookings/all",
+                                "/api/bookings/paged", "/api/bookings/tour/**").hasRole("ADMIN")
                         .requestMatchers("/api/bookings/{id}/approve", "/api/bookings/{id}/reject").hasRole("ADMIN")
                         .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/bookings").hasRole("ADMIN")
 
                         // User endpoints (authenticated)
                         .requestMatchers("/api/auth/me", "/api/auth/change-password").authenticated()
-                        .requestMatchers("/api/bookings/my-bookings", "/api/bookings/me", "/api/bookings/{id}").authenticated()
+                        .requestMatchers("/api/bookings/my-bookings", "/api/bookings/me", "/api/bookings/me/**", "/api/bookings/{id}").authenticated()
                         // POST /api/bookings (create a booking) requires a logged-in user, not admin.
                         .requestMatchers(org.springframework.http.HttpMethod.POST, "/api/bookings").authenticated()
 
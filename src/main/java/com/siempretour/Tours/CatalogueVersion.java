@@ -0,0 +1,91 @@
+package com.siempretour.Tours;
+
+import com.siempretour.Tours.Models.CatalogueVersionRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic number that changes whenever anything in the tour catalogue changes (every
+ * TourChangedEvent: create, update, delete, seat changes), so caches and listing responses
+ * can be validated with one comparison instead of being recomputed.
+ *
+ * The version lives in the catalogue_version row and is bumped inside the writing
+ * transaction; the in-process copy follows once that transaction commits, and is re-read
+ * periodically to pick up writes made by other instances. Exposed to clients as the
+ * X-Catalogue-Version response header.
+ */
+@Slf4j
+@Component
+public class CatalogueVersion {
+
+    public static final String HEADER = "X-Catalogue-Version";
+
+    private final CatalogueVersionRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    // Until the row has been read, the startup time keeps validators from an earlier run from matching
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    public CatalogueVersion(CatalogueVersionRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (repository.findVersion(CatalogueVersionRow.SINGLETON_ID).isEmpty()) {
+                CatalogueVersionRow row = new CatalogueVersionRow();
+                row.setVersion(version.get());
+                repository.save(row);
+            }
+        });
+        refresh();
+        log.info("Catalogue version {}", version.get());
+    }
+
+    @Scheduled(fixedDelayString = "${catalogue.version.refresh-interval:PT15S}")
+    public void refresh() {
+        repository.findVersion(CatalogueVersionRow.SINGLETON_ID).ifPresent(this::advanceTo);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        Long next = transactionTemplate.execute(status -> {
+            repository.increment(CatalogueVersionRow.SINGLETON_ID);
+            return repository.findVersion(CatalogueVersionRow.SINGLETON_ID).orElse(null);
+        });
+        if (next == null) {
+            version.incrementAndGet(); // Row not created yet (startup); stay in-process
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    advanceTo(next);
+                }
+            });
+        } else {
+            advanceTo(next);
+        }
+    }
+
+    private void advanceTo(long value) {
+        version.accumulateAndGet(value, Math::max);
+    }
+}
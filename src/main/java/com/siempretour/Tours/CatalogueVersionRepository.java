@@ -0,0 +1,22 @@
+package com.siempretour.Tours;
+
+import com.siempretour.Tours.Models.CatalogueVersionRow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogueVersionRepository extends JpaRepository<CatalogueVersionRow, Long> {
+
+    // Row lock is held until the writing transaction commits, so versions are handed out in commit order
+    @Modifying
+    @Query("UPDATE CatalogueVersionRow c SET c.version = c.version + 1 WHERE c.id = :id")
+    int increment(@Param("id") Long id);
+
+    @Query("SELECT c.version FROM CatalogueVersionRow c WHERE c.id = :id")
+    Optional<Long> findVersion(@Param("id") Long id);
+}
@@ -0,0 +1,24 @@
+package com.siempretour.Tours.Dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Slim tour row for listing grids (view=card). Selected directly in the query, so the
+ * TEXT columns (generalInfo, whatExpect, ...) and the itinerary collections are never read.
+ * createdAt/updatedAt are included so cursor pages can be continued from any card.
+ */
+public record TourCardDto(
+        Long id,
+        String name,
+        String slug,
+        String language,
+        String mainPhoto,
+        String destination,
+        BigDecimal price,
+        BigDecimal discountedPrice,
+        Integer duration,
+        LocalDateTime startDate,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,12 @@
+package com.siempretour.Tours.Dto;
+
+/**
+ * One autocomplete suggestion. type is TOUR (slug set, links to the tour page),
+ * DESTINATION or PLACE (a route stop; use as a search query).
+ */
+public record TourSuggestionDto(
+        String text,
+        String type,
+        String slug,
+        String language) {
+}
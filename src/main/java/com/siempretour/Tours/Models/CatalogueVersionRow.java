@@ -0,0 +1,22 @@
+package com.siempretour.Tours.Models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Single row holding the catalogue version, so every instance (and every restart) agrees on
+ * it. See CatalogueVersion.
+ */
+@Entity
+@Table(name = "catalogue_version")
+@Data
+public class CatalogueVersionRow {
+
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id = SINGLETON_ID;
+
+    @Column(nullable = false)
+    private long version;
+}
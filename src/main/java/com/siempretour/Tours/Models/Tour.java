@@ -1,6 +1,7 @@
 package com.siempretour.Tours.Models;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMin;
@@ -139,6 +140,11 @@ public class Tour {
     @Column(nullable = false)
     private Boolean isActive = true;
 
+    // Optimistic lock: admin edits fail with 409 instead of overwriting a concurrent seat change
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     private Long createdBy;
 
     @DecimalMin(value = "0.0", inclusive = false)
@@ -154,6 +160,12 @@ public class Tour {
     @Column(length = 100)
     private String shipCompany;
 
+    // Flattened searchable text (name, destination, places, general info, day titles).
+    // Indexed with language-aware tsvector GIN indexes on Postgres, see TourFullTextSearch.
+    @JsonIgnore
+    @Column(columnDefinition = "TEXT")
+    private String searchDocument;
+
     // ==================== Relationships ====================
 
     @OneToMany(mappedBy = "tour", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
@@ -208,6 +220,29 @@ public class Tour {
         }
     }
 
+    public void refreshSearchDocument() {
+        searchDocument = buildSearchDocument();
+    }
+
+    public String buildSearchDocument() {
+        StringBuilder doc = new StringBuilder();
+        appendSearchText(doc, name);
+        appendSearchText(doc, destination);
+        appendSearchText(doc, placesVisited);
+        appendSearchText(doc, generalInfo != null ? generalInfo.replaceAll("<[^>]*>", " ") : null);
+        for (TourDay day : dayInfo) {
+            appendSearchText(doc, day.getTitle());
+        }
+        return doc.toString();
+    }
+
+    private static void appendSearchText(StringBuilder doc, String text) {
+        if (text != null && !text.isBlank()) {
+            if (!doc.isEmpty()) doc.append('\n');
+            doc.append(text.strip());
+        }
+    }
+
     // ==================== Helper for TourDay management ====================
 
     public void setDayInfoFromList(List<TourDay> days) {
@@ -0,0 +1,37 @@
+package com.siempretour.Tours;
+
+import com.siempretour.Tours.Models.Tour;
+
+/**
+ * Published whenever a tour row is written (create, update, soft/hard delete, seat change).
+ * Read models derived from the catalogue (caches, in-memory indexes) listen for it and
+ * refresh once the surrounding transaction has committed.
+ *
+ * previousSlug / previousLanguage hold the values before an update, so entries stored
+ * under the old (slug, language) key can be dropped as well.
+ */
+public record TourChangedEvent(
+        Long tourId,
+        String slug,
+        String language,
+        String previousSlug,
+        String previousLanguage,
+        Kind kind) {
+
+    public enum Kind {
+        CREATED,
+        UPDATED,
+        DELETED,
+        SEATS
+    }
+
+    public static TourChangedEvent of(Tour tour, Kind kind) {
+        return new TourChangedEvent(tour.getId(), tour.getSlug(), tour.getLanguage(),
+                tour.getSlug(), tour.getLanguage(), kind);
+    }
+
+    public static TourChangedEvent updated(Tour tour, String previousSlug, String previousLanguage) {
+        return new TourChangedEvent(tour.getId(), tour.getSlug(), tour.getLanguage(),
+                previousSlug, previousLanguage, Kind.UPDATED);
+    }
+}
@@ -1,9 +1,12 @@
 package com.siempretour.Tours;
 
+import com.siempretour.Config.HttpCaching;
 import com.siempretour.Filter.PagedResponse;
+import com.siempretour.Filter.TourSuggestIndex;
 import com.siempretour.Tours.Dto.TourCreateDto;
 import com.siempretour.Tours.Dto.TourFilterDto;
 import com.siempretour.Tours.Dto.TourResponseDto;
+import com.siempretour.Tours.Dto.TourSuggestionDto;
 import com.siempretour.Tours.Dto.TourUpdateDto;
 import com.siempretour.Tours.Models.TourCategory;
 import com.siempretour.Tours.Models.TourStatus;
@@ -14,9 +17,12 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Slf4j
@@ -25,7 +31,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TourController {
 
+    private static final String VIEW_FULL = "full";
+    private static final String VIEW_CARD = "card";
+    private static final String PAGINATION_OFFSET = "offset";
+    private static final String PAGINATION_CURSOR = "cursor";
+
     private final TourService tourService;
+    private final CatalogueVersion catalogueVersion;
+    private final HttpCaching httpCaching;
 
     // ==================== CRUD Operations ====================
 
@@ -52,10 +65,22 @@ public class TourController {
         return ResponseEntity.noContent().build();
     }
 
+    // Conditional GET: a matching If-None-Match / If-Modified-Since skips loading the tour
     @GetMapping("/{tourId}")
-    public ResponseEntity<TourResponseDto> getTourById(@PathVariable Long tourId) {
-        TourResponseDto response = tourService.getTourById(tourId);
-        return ResponseEntity.ok(response);
+    public ResponseEntity<TourResponseDto> getTourById(@PathVariable Long tourId, WebRequest request) {
+        LocalDateTime updatedAt = tourService.getTourUpdatedAt(tourId);
+        return httpCaching.respond(request, HttpCaching.etag("tour", tourId, HttpCaching.epochMillis(updatedAt)),
+                updatedAt, () -> tourService.getTourById(tourId));
+    }
+
+    // ==================== Autocomplete ====================
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<TourSuggestionDto>> suggest(
+            @RequestParam String q,
+            @RequestParam(required = false) String lang,
+            @RequestParam(defaultValue = "" + TourSuggestIndex.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(tourService.suggest(q, lang, limit));
     }
 
     // ==================== Destination & Slug Endpoints ====================
@@ -71,15 +96,25 @@ public class TourController {
     }
 
     @GetMapping("/by-destination/paged")
-    public ResponseEntity<PagedResponse<TourResponseDto>> getToursByDestinationPaged(
+    public ResponseEntity<PagedResponse<?>> getToursByDestinationPaged(
             @RequestParam String destination,
             @RequestParam(defaultValue = "tr") String lang,
             @RequestParam(required = false) String category,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "50") int size,
             @RequestParam(defaultValue = "name") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDirection) {
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = VIEW_FULL) String view) {
         log.info("Getting paged tours for destination: {} lang: {} category: {}", destination, lang, category);
+        if (isCardView(view)) {
+            TourFilterDto filter = new TourFilterDto();
+            filter.setDestination(destination);
+            filter.setLanguage(lang);
+            if (category != null && !category.isEmpty()) {
+                filter.setCategory(TourCategory.fromString(category));
+            }
+            return ResponseEntity.ok(tourService.filterTourCards(filter, page, size, sortBy, sortDirection));
+        }
         PagedResponse<TourResponseDto> response = tourService.getToursByDestination(
                 destination, lang, category, page, size, sortBy, sortDirection);
         return ResponseEntity.ok(response);
@@ -88,10 +123,14 @@ public class TourController {
     @GetMapping("/by-slug/{slug}")
     public ResponseEntity<TourResponseDto> getTourBySlug(
             @PathVariable String slug,
-            @RequestParam(defaultValue = "tr") String lang) {
+            @RequestParam(defaultValue = "tr") String lang,
+            WebRequest request) {
         log.info("Getting tour by slug: {} lang: {}", slug, lang);
+        // Served from the detail cache, so the validator comes from the cached DTO
         TourResponseDto response = tourService.getTourBySlug(slug, lang);
-        return ResponseEntity.ok(response);
+        return httpCaching.respond(request,
+                HttpCaching.etag("tour", response.getId(), HttpCaching.epochMillis(response.getUpdatedAt())),
+                response.getUpdatedAt(), () -> response);
     }
 
     // ==================== Paginated List Endpoints ====================
@@ -109,27 +148,40 @@ public class TourController {
     }
 
     @GetMapping("/active")
-    public ResponseEntity<PagedResponse<TourResponseDto>> getActiveTours(
+    public ResponseEntity<PagedResponse<?>> getActiveTours(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDirection) {
-
-        log.info("Getting active tours - page: {}, size: {}", page, size);
-        PagedResponse<TourResponseDto> response = tourService.getActiveTours(page, size, sortBy, sortDirection);
-        return ResponseEntity.ok(response);
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            WebRequest request) {
+
+        log.info("Getting active tours - page: {}, size: {}, view: {}", page, size, view);
+        return httpCaching.<PagedResponse<?>>respond(request, catalogueEtag(), () -> isCardView(view)
+                ? tourService.filterTourCards(new TourFilterDto(), page, size, sortBy, sortDirection)
+                : tourService.getActiveTours(page, size, sortBy, sortDirection));
     }
 
     @GetMapping("/published")
-    public ResponseEntity<PagedResponse<TourResponseDto>> getPublishedTours(
+    public ResponseEntity<PagedResponse<?>> getPublishedTours(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "startDate") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDirection) {
-
-        log.info("Getting published tours - page: {}, size: {}", page, size);
-        PagedResponse<TourResponseDto> response = tourService.getPublishedTours(page, size, sortBy, sortDirection);
-        return ResponseEntity.ok(response);
+            @RequestParam(defaultValue = "asc") String sortDirection,
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            @RequestParam(defaultValue = PAGINATION_OFFSET) String pagination,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+
+        log.info("Getting published tours - page: {}, size: {}, view: {}", page, size, view);
+        return httpCaching.<PagedResponse<?>>respond(request, catalogueEtag(), () -> {
+            if (isCursorPagination(pagination)) {
+                return tourService.getPublishedToursByCursor(cursor, size, sortBy, sortDirection, isCardView(view));
+            }
+            return isCardView(view)
+                    ? tourService.getPublishedTourCards(page, size, sortBy, sortDirection)
+                    : tourService.getPublishedTours(page, size, sortBy, sortDirection);
+        });
     }
 
     @GetMapping("/my-tours")
@@ -147,7 +199,7 @@ public class TourController {
     // ==================== Advanced Filtering Endpoint ====================
 
     @GetMapping("/filter")
-    public ResponseEntity<PagedResponse<TourResponseDto>> filterTours(
+    public ResponseEntity<PagedResponse<?>> filterTours(
             @RequestParam(required = false) TourStatus status,
             @RequestParam(required = false) TourCategory category,
             @RequestParam(required = false) BigDecimal minPrice,
@@ -163,7 +215,12 @@ public class TourController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDirection) {
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            @RequestParam(defaultValue = PAGINATION_OFFSET) String pagination,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean facets,
+            WebRequest request) {
 
         log.info("Filtering tours with params - status: {}, category: {}, lang: {}, destination: {}, page: {}, size: {}",
                 status, category, lang, destination, page, size);
@@ -182,24 +239,65 @@ public class TourController {
         filter.setLanguage(lang);
         filter.setDestination(destination);
 
-        PagedResponse<TourResponseDto> response = tourService.filterTours(
-                filter, page, size, sortBy, sortDirection);
-        return ResponseEntity.ok(response);
+        return httpCaching.<PagedResponse<?>>respond(request, catalogueEtag(),
+                () -> filter(filter, page, size, sortBy, sortDirection, view, pagination, cursor, facets));
+    }
+
+    /**
+     * Validator for listing responses: any catalogue write changes the version. Listings also
+     * depend on the clock (departed tours drop out), so the hour is part of the tag and a
+     * cached listing is recomputed at least hourly.
+     */
+    private String catalogueEtag() {
+        return HttpCaching.etag("catalogue", catalogueVersion.current(),
+                LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).toEpochSecond(ZoneOffset.UTC) / 3600);
     }
 
     @PostMapping("/filter")
-    public ResponseEntity<PagedResponse<TourResponseDto>> filterToursPost(
+    public ResponseEntity<PagedResponse<?>> filterToursPost(
             @RequestBody TourFilterDto filter,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "createdAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String sortDirection) {
+            @RequestParam(defaultValue = "desc") String sortDirection,
+            @RequestParam(defaultValue = VIEW_FULL) String view,
+            @RequestParam(defaultValue = PAGINATION_OFFSET) String pagination,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean facets) {
 
-        log.info("Filtering tours (POST) with filter - page: {}, size: {}", page, size);
+        log.info("Filtering tours (POST) with filter - page: {}, size: {}, view: {}", page, size, view);
 
-        PagedResponse<TourResponseDto> response = tourService.filterTours(
-                filter, page, size, sortBy, sortDirection);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(filter(filter, page, size, sortBy, sortDirection, view, pagination, cursor, facets));
+    }
+
+    /** facets=true adds sidebar counts (see TourService.getTourFacets) to the page. */
+    private PagedResponse<?> filter(TourFilterDto filter, int page, int size, String sortBy,
+            String sortDirection, String view, String pagination, String cursor, boolean facets) {
+        PagedResponse<?> response;
+        if (isCursorPagination(pagination)) {
+            response = tourService.filterToursByCursor(filter, cursor, size, sortBy, sortDirection, isCardView(view));
+        } else {
+            response = isCardView(view)
+                    ? tourService.filterTourCards(filter, page, size, sortBy, sortDirection)
+                    : tourService.filterTours(filter, page, size, sortBy, sortDirection);
+        }
+        if (facets) {
+            response.setFacets(tourService.getTourFacets(filter));
+        }
+        return response;
+    }
+
+    /** view=card returns TourCardDto rows (listing grids); anything else the full TourResponseDto. */
+    private static boolean isCardView(String view) {
+        return VIEW_CARD.equalsIgnoreCase(view);
+    }
+
+    /**
+     * pagination=cursor switches to keyset pages: pass the previous response's nextCursor
+     * as cursor (omit it for the first page). No totals are returned in this mode.
+     */
+    private static boolean isCursorPagination(String pagination) {
+        return PAGINATION_CURSOR.equalsIgnoreCase(pagination);
     }
 
     // ==================== Bulk Import ====================
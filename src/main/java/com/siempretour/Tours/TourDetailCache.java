@@ -0,0 +1,108 @@
+package com.siempretour.Tours;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.siempretour.Tours.Dto.TourDayDto;
+import com.siempretour.Tours.Dto.TourResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of fully mapped tour detail pages keyed by (slug, language).
+ *
+ * A miss costs the tour row plus four lazy collection loads; a hit costs nothing.
+ * The cache is bounded by an estimated byte size (long HTML descriptions weigh more
+ * than short ones) and entries are dropped after every committed tour write, see
+ * {@link TourChangedEvent}. A page loaded while such a write committed is served but
+ * not kept, see {@link #get}. Hit/miss/eviction counters are published to actuator
+ * as cache.* metrics with cache=tourDetail.
+ */
+@Slf4j
+@Component
+public class TourDetailCache {
+
+    private static final int BASE_ENTRY_BYTES = 1024;
+
+    private final Cache<Key, TourResponseDto> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    public TourDetailCache(
+            MeterRegistry meterRegistry,
+            @Value("${tour.cache.detail.max-weight-bytes:33554432}") long maxWeightBytes,
+            @Value("${tour.cache.detail.ttl:PT30M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeightBytes)
+                .weigher((Key key, TourResponseDto dto) -> estimateBytes(dto))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "tourDetail");
+    }
+
+    /**
+     * The loader may have read the tour before a write committed, so its page is stored first
+     * and dropped again if any eviction ran meanwhile: an eviction either bumps the generation
+     * before this check or invalidates after the put.
+     */
+    public TourResponseDto get(String slug, String language, Supplier<TourResponseDto> loader) {
+        Key key = new Key(slug, language);
+        TourResponseDto cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadedAt = generation.get();
+        TourResponseDto dto = loader.get();
+        cache.put(key, dto);
+        if (generation.get() != loadedAt) {
+            cache.asMap().remove(key, dto);
+        }
+        return dto;
+    }
+
+    public void evict(String slug, String language) {
+        if (slug != null) {
+            cache.invalidate(new Key(slug, language));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTourChanged(TourChangedEvent event) {
+        generation.incrementAndGet();
+        evict(event.slug(), event.language());
+        evict(event.previousSlug(), event.previousLanguage());
+        log.debug("Evicted tour detail cache entries for tour {}", event.tourId());
+    }
+
+    private static int estimateBytes(TourResponseDto dto) {
+        long bytes = BASE_ENTRY_BYTES
+                + chars(dto.getName()) + chars(dto.getGeneralInfo()) + chars(dto.getPlacesVisited())
+                + chars(dto.getWhatExpect()) + chars(dto.getMap()) + chars(dto.getMeet());
+        if (dto.getDayInfo() != null) {
+            for (TourDayDto day : dto.getDayInfo()) {
+                bytes += 64 + chars(day.getTitle()) + chars(day.getDescription());
+            }
+        }
+        if (dto.getRoute() != null) {
+            bytes += 96L * dto.getRoute().size();
+        }
+        if (dto.getRouteCoordinates() != null) {
+            bytes += 128L * dto.getRouteCoordinates().size();
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long chars(String s) {
+        return s == null ? 0 : 2L * s.length();
+    }
+
+    private record Key(String slug, String language) {
+    }
+}
@@ -7,17 +7,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface TourRepository extends JpaRepository<Tour, Long>, JpaSpecificationExecutor<Tour> {
+public interface TourRepository extends JpaRepository<Tour, Long>, JpaSpecificationExecutor<Tour>, TourRepositoryCustom {
 
     Optional<Tour> findBySlug(String slug);
 
@@ -25,6 +27,19 @@ public interface TourRepository extends JpaRepository<Tour, Long>, JpaSpecificat
 
     Optional<Tour> findBySlugAndLanguageAndIsActiveTrue(String slug, String language);
 
+    // Validator for conditional GETs: lets a 304 skip loading and mapping the tour
+    @Query("SELECT t.id AS id, t.updatedAt AS updatedAt FROM Tour t WHERE t.id = :id")
+    Optional<Timestamps> findTimestampsById(@Param("id") Long id);
+
+    interface Timestamps {
+        Long getId();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    // Every language/active variant of the given slugs; callers pick the preferred one
+    List<Tour> findBySlugInOrderByIdAsc(Collection<String> slugs);
+
     List<Tour> findByIsActiveTrue();
 
     List<Tour> findByStatus(TourStatus status);
@@ -67,6 +82,23 @@ public interface TourRepository extends JpaRepository<Tour, Long>, JpaSpecificat
     Page<Tour> findByIsActiveTrueAndDestinationAndLanguageAndCategory(
             String destination, String language, TourCategory category, Pageable pageable);
 
+    // ==================== Batch collection loading ====================
+    // Listing pages initialize the lazy collections of a whole page of tours with one
+    // query per collection (instead of one per tour). The fetched rows attach to the
+    // tours already in the persistence context, so callers ignore the return value.
+
+    @Query("SELECT DISTINCT t FROM Tour t LEFT JOIN FETCH t.dayInfo WHERE t.id IN :ids")
+    List<Tour> fetchDayInfo(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT t FROM Tour t LEFT JOIN FETCH t.destinations WHERE t.id IN :ids")
+    List<Tour> fetchDestinations(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT t FROM Tour t LEFT JOIN FETCH t.route WHERE t.id IN :ids")
+    List<Tour> fetchRoute(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT t FROM Tour t LEFT JOIN FETCH t.routeCoordinates WHERE t.id IN :ids")
+    List<Tour> fetchRouteCoordinates(@Param("ids") Collection<Long> ids);
+
     /**
      * Free-text search used by the chat assistant (function calling).
      * Matches active + published tours whose name, destination or visited
@@ -111,4 +143,44 @@ public interface TourRepository extends JpaRepository<Tour, Long>, JpaSpecificat
             @Param("destination") String destination,
             Pageable pageable
     );
+
+    // ==================== Seat accounting ====================
+
+    /**
+     * Takes {@code count} seats in one statement, only if that many are left, and marks the
+     * tour SOLD_OUT when the last seat goes (SET expressions see the pre-update values).
+     * Returns 0 when there are not enough seats. Bumps the version so a concurrent admin
+     * edit of the same tour fails instead of restoring the old seat count.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Tour t SET t.availableSeats = t.availableSeats - :count, " +
+            "t.status = CASE WHEN t.availableSeats = :count THEN :soldOut ELSE t.status END, " +
+            "t.updatedAt = :now, t.version = t.version + 1 " +
+            "WHERE t.id = :id AND t.availableSeats >= :count")
+    int takeSeats(@Param("id") Long id,
+                  @Param("count") int count,
+                  @Param("soldOut") TourStatus soldOut,
+                  @Param("now") LocalDateTime now);
+
+    // ==================== Full-text search (Postgres) ====================
+    // The tsvector expressions must match the partial GIN indexes created by
+    // TourFullTextSearch exactly, otherwise Postgres falls back to a sequential scan.
+
+    @Query(value = "SELECT t.id FROM tours t " +
+            "WHERE (CAST(:language AS varchar) IS NULL OR t.language = :language) " +
+            "AND ((t.language = 'tr' AND to_tsvector('turkish', coalesce(t.search_document, '')) @@ to_tsquery('turkish', :query)) " +
+            "  OR (t.language = 'en' AND to_tsvector('english', coalesce(t.search_document, '')) @@ to_tsquery('english', :query))) " +
+            "ORDER BY CASE WHEN t.language = 'tr' " +
+            "  THEN ts_rank(to_tsvector('turkish', coalesce(t.search_document, '')), to_tsquery('turkish', :query)) " +
+            "  ELSE ts_rank(to_tsvector('english', coalesce(t.search_document, '')), to_tsquery('english', :query)) END DESC, " +
+            "t.id DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Long> searchIdsByRank(@Param("query") String query, @Param("language") String language, @Param("limit") int limit);
+
+    List<Tour> findBySearchDocumentIsNull();
+
+    // Bulk update on purpose: keeps updatedAt untouched when backfilling
+    @Modifying
+    @Query("UPDATE Tour t SET t.searchDocument = :document WHERE t.id = :id")
+    int updateSearchDocument(@Param("id") Long id, @Param("document") String document);
 }
@@ -0,0 +1,30 @@
+package com.siempretour.Tours;
+
+import com.siempretour.Filter.TourFacets;
+import com.siempretour.Tours.Dto.TourCardDto;
+import com.siempretour.Tours.Models.Tour;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/** Criteria-based queries that Spring Data cannot derive (see TourRepositoryCustomImpl). */
+public interface TourRepositoryCustom {
+
+    /** Card projection of the tours matching the specification. */
+    Page<TourCardDto> findCards(Specification<Tour> spec, Pageable pageable);
+
+    /** First {@code limit} tours in {@code sort} order; no count query (keyset pages). */
+    List<Tour> findSlice(Specification<Tour> spec, Sort sort, int limit);
+
+    /** Card projection variant of {@link #findSlice}. */
+    List<TourCardDto> findCardSlice(Specification<Tour> spec, Sort sort, int limit);
+
+    /** Ids of all tours matching the specification. */
+    List<Long> findIds(Specification<Tour> spec);
+
+    /** Matching tours grouped by the facet columns, with a count per group (one query). */
+    List<TourFacets.Row> findFacetRows(Specification<Tour> spec);
+}
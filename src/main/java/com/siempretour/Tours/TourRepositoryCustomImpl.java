@@ -0,0 +1,137 @@
+package com.siempretour.Tours;
+
+import com.siempretour.Filter.TourFacets;
+import com.siempretour.Tours.Dto.TourCardDto;
+import com.siempretour.Tours.Models.Tour;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TourRepositoryCustomImpl implements TourRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<TourCardDto> findCards(Specification<Tour> spec, Pageable pageable) {
+        List<TourCardDto> content = entityManager.createQuery(cardQuery(spec, pageable.getSort()))
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public List<Tour> findSlice(Specification<Tour> spec, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tour> query = cb.createQuery(Tour.class);
+        Root<Tour> root = query.from(Tour.class);
+        query.select(root);
+        applyWhereAndOrder(query, root, cb, spec, sort);
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<TourCardDto> findCardSlice(Specification<Tour> spec, Sort sort, int limit) {
+        return entityManager.createQuery(cardQuery(spec, sort))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<Long> findIds(Specification<Tour> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Tour> root = query.from(Tour.class);
+        query.select(root.get("id"));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<TourFacets.Row> findFacetRows(Specification<Tour> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TourFacets.Row> query = cb.createQuery(TourFacets.Row.class);
+        Root<Tour> root = query.from(Tour.class);
+        List<Expression<?>> columns = List.of(
+                root.get("category"),
+                root.get("eventType"),
+                root.get("destination"),
+                root.get("departureCity"),
+                root.get("duration"),
+                root.get("price"));
+        List<Selection<?>> selection = new ArrayList<>(columns);
+        selection.add(cb.count(root));
+        query.select(cb.construct(TourFacets.Row.class, selection.toArray(new Selection<?>[0])));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.groupBy(columns);
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private CriteriaQuery<TourCardDto> cardQuery(Specification<Tour> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TourCardDto> query = cb.createQuery(TourCardDto.class);
+        Root<Tour> root = query.from(Tour.class);
+        query.select(cb.construct(TourCardDto.class,
+                root.get("id"),
+                root.get("name"),
+                root.get("slug"),
+                root.get("language"),
+                root.get("mainPhoto"),
+                root.get("destination"),
+                root.get("price"),
+                root.get("discountedPrice"),
+                root.get("duration"),
+                root.get("startDate"),
+                root.get("createdAt"),
+                root.get("updatedAt")));
+        applyWhereAndOrder(query, root, cb, spec, sort);
+        return query;
+    }
+
+    private void applyWhereAndOrder(CriteriaQuery<?> query, Root<Tour> root, CriteriaBuilder cb,
+                                    Specification<Tour> spec, Sort sort) {
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+    }
+
+    private long count(Specification<Tour> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Tour> root = query.from(Tour.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
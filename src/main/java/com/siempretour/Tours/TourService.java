@@ -2,24 +2,40 @@ package com.siempretour.Tours;
 
 import com.siempretour.Exceptions.ErrorCodes;
 import com.siempretour.Exceptions.GlobalException;
+import com.siempretour.Filter.FacetCountDto;
+import com.siempretour.Filter.KeysetCursor;
 import com.siempretour.Filter.PagedResponse;
 import com.siempretour.Filter.PaginationConstants;
+import com.siempretour.Filter.TourFacets;
+import com.siempretour.Filter.TourFullTextSearch;
+import com.siempretour.Filter.TourSearchIndex;
+import com.siempretour.Filter.TourSuggestIndex;
 import com.siempretour.Filter.TourSpecification;
 import com.siempretour.Security.JwtHelper;
 import com.siempretour.Tours.Dto.*;
 import com.siempretour.Tours.Models.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -27,8 +43,19 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class TourService {
 
+    // Sort keys a cursor page can seek on (non-unique timestamps, tie-broken by id)
+    private static final Set<String> KEYSET_SORT_KEYS = Set.of("createdAt", "updatedAt", "startDate");
+
+    // sortBy value that orders full-text matches by rank (falls back to createdAt without a query)
+    private static final String SORT_RELEVANCE = "relevance";
+
     private final TourRepository tourRepository;
     private final JwtHelper jwtHelper;
+    private final TourDetailCache tourDetailCache;
+    private final TourSearchIndex tourSearchIndex;
+    private final TourFullTextSearch fullTextSearch;
+    private final TourSuggestIndex tourSuggestIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     // ==================== CREATE ====================
 
@@ -57,6 +84,7 @@ public class TourService {
         }
 
         Tour savedTour = tourRepository.save(tour);
+        eventPublisher.publishEvent(TourChangedEvent.of(savedTour, TourChangedEvent.Kind.CREATED));
         log.info("Tour created with ID: {} by user: {}", savedTour.getId(), userId);
 
         return mapToResponseDto(savedTour);
@@ -70,6 +98,8 @@ public class TourService {
 
         Tour tour = tourRepository.findById(tourId)
                 .orElseThrow(() -> new GlobalException(ErrorCodes.TOUR_COULD_NOT_BE_FOUND));
+        String previousSlug = tour.getSlug();
+        String previousLanguage = tour.getLanguage();
 
         // Update only non-null fields
         if (dto.getName() != null) tour.setName(dto.getName());
@@ -117,6 +147,11 @@ public class TourService {
             if (et != null) tour.setEventType(et);
         }
 
+        // Collection edits do not dirty the tour row itself, so @PreUpdate would not run and the
+        // ETag / Last-Modified of GET /api/tours/{slug} (derived from updatedAt) would stay stale
+        boolean collectionsChanged = dto.getDestinations() != null || dto.getDayInfo() != null
+                || dto.getRoute() != null || dto.getRouteCoordinates() != null;
+
         // Update day info
         if (dto.getDayInfo() != null) {
             tour.getDayInfo().clear();
@@ -144,7 +179,12 @@ public class TourService {
                     .collect(Collectors.toList()));
         }
 
+        if (collectionsChanged) {
+            tour.setUpdatedAt(LocalDateTime.now());
+        }
+        tour.refreshSearchDocument();
         Tour updatedTour = tourRepository.save(tour);
+        eventPublisher.publishEvent(TourChangedEvent.updated(updatedTour, previousSlug, previousLanguage));
         log.info("Tour updated with ID: {} by user: {}", tourId, userId);
 
         return mapToResponseDto(updatedTour);
@@ -162,6 +202,7 @@ public class TourService {
         tour.setIsActive(false);
         tour.setStatus(TourStatus.CANCELLED);
         tourRepository.save(tour);
+        eventPublisher.publishEvent(TourChangedEvent.of(tour, TourChangedEvent.Kind.DELETED));
 
         log.info("Tour soft deleted with ID: {} by user: {}", tourId, userId);
     }
@@ -174,14 +215,25 @@ public class TourService {
         return mapToResponseDto(tour);
     }
 
-    public TourResponseDto getTourBySlug(String slug, String language) {
-        Tour tour = tourRepository.findBySlugAndLanguageAndIsActiveTrue(slug, language)
+    @Transactional(readOnly = true)
+    public LocalDateTime getTourUpdatedAt(Long tourId) {
+        TourRepository.Timestamps timestamps = tourRepository.findTimestampsById(tourId)
                 .orElseThrow(() -> new GlobalException(ErrorCodes.TOUR_COULD_NOT_BE_FOUND));
-        return mapToResponseDto(tour);
+        return timestamps.getUpdatedAt();
+    }
+
+    @Transactional(readOnly = true)
+    public TourResponseDto getTourBySlug(String slug, String language) {
+        return tourDetailCache.get(slug, language, () -> {
+            Tour tour = tourRepository.findBySlugAndLanguageAndIsActiveTrue(slug, language)
+                    .orElseThrow(() -> new GlobalException(ErrorCodes.TOUR_COULD_NOT_BE_FOUND));
+            return mapToResponseDto(tour);
+        });
     }
 
     // ==================== GET BY DESTINATION ====================
 
+    @Transactional(readOnly = true)
     public List<TourResponseDto> getToursByDestination(String destination, String language, String category) {
         List<Tour> tours;
         if (category != null && !category.isEmpty()) {
@@ -190,11 +242,10 @@ public class TourService {
         } else {
             tours = tourRepository.findByIsActiveTrueAndDestinationAndLanguage(destination, language);
         }
-        return tours.stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return mapAll(tours);
     }
 
+    @Transactional(readOnly = true)
     public PagedResponse<TourResponseDto> getToursByDestination(
             String destination, String language, String category, int page, int size, String sortBy, String sortDirection) {
         Pageable pageable = createPageable(page, size, sortBy, sortDirection);
@@ -213,18 +264,21 @@ public class TourService {
 
     // ==================== Paginated List Endpoints ====================
 
+    @Transactional(readOnly = true)
     public PagedResponse<TourResponseDto> getAllTours(int page, int size, String sortBy, String sortDirection) {
         Pageable pageable = createPageable(page, size, sortBy, sortDirection);
         Page<Tour> tourPage = tourRepository.findAll(pageable);
         return mapToPagedResponse(tourPage);
     }
 
+    @Transactional(readOnly = true)
     public PagedResponse<TourResponseDto> getActiveTours(int page, int size, String sortBy, String sortDirection) {
         Pageable pageable = createPageable(page, size, sortBy, sortDirection);
         Page<Tour> tourPage = tourRepository.findByIsActiveTrue(pageable);
         return mapToPagedResponse(tourPage);
     }
 
+    @Transactional(readOnly = true)
     public PagedResponse<TourResponseDto> getPublishedTours(int page, int size, String sortBy, String sortDirection) {
         Pageable pageable = createPageable(page, size, sortBy, sortDirection);
         Page<Tour> tourPage = tourRepository.findByIsActiveTrueAndStatusAndStartDateAfter(
@@ -234,6 +288,14 @@ public class TourService {
         return mapToPagedResponse(tourPage);
     }
 
+    @Transactional(readOnly = true)
+    public PagedResponse<TourCardDto> getPublishedTourCards(int page, int size, String sortBy, String sortDirection) {
+        Pageable pageable = createPageable(page, size, sortBy, sortDirection);
+        Page<TourCardDto> cardPage = tourRepository.findCards(TourSpecification.published(LocalDateTime.now()), pageable);
+        return toPagedResponse(cardPage, cardPage.getContent());
+    }
+
+    @Transactional(readOnly = true)
     public PagedResponse<TourResponseDto> getMyTours(int page, int size, String sortBy, String sortDirection) {
         Long userId = jwtHelper.getCurrentUserId();
         Pageable pageable = createPageable(page, size, sortBy, sortDirection);
@@ -241,42 +303,222 @@ public class TourService {
         return mapToPagedResponse(tourPage);
     }
 
+    @Transactional(readOnly = true)
     public PagedResponse<TourResponseDto> filterTours(TourFilterDto filter, int page, int size,
             String sortBy, String sortDirection) {
-        Pageable pageable = createPageable(page, size, sortBy, sortDirection);
+        if (tourSearchIndex.supports(filter, sortBy)) {
+            Pageable pageable = createPageable(page, size, sortBy, sortDirection);
+            TourSearchIndex.Result result = tourSearchIndex.search(filter, pageable.getPageNumber(),
+                    pageable.getPageSize(), sortBy, "asc".equalsIgnoreCase(sortDirection));
+            List<Tour> tours = findAllInOrder(result.ids());
+            return toPagedResponse(new PageImpl<>(tours, pageable, result.total()), mapAll(tours));
+        }
+
+        TourFullTextSearch.Match search = fullTextSearch.match(filter);
+        Specification<Tour> spec = filterSpec(filter, search);
+        if (isRankedSearch(search, sortBy)) {
+            Page<Long> idPage = rankedIdPage(spec, search.rankedIds(), page, size);
+            return markCapped(toPagedResponse(idPage, mapAll(findAllInOrder(idPage.getContent()))), search);
+        }
 
-        Page<Tour> tourPage = tourRepository.findAll(TourSpecification.withFilters(filter), pageable);
+        Pageable pageable = createPageable(page, size, sortKey(sortBy), sortDirection);
+        Page<Tour> tourPage = tourRepository.findAll(spec, pageable);
 
-        return mapToPagedResponse(tourPage);
+        return markCapped(mapToPagedResponse(tourPage), search);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<TourCardDto> filterTourCards(TourFilterDto filter, int page, int size,
+            String sortBy, String sortDirection) {
+        TourFullTextSearch.Match search = fullTextSearch.match(filter);
+        Specification<Tour> spec = filterSpec(filter, search);
+        if (isRankedSearch(search, sortBy)) {
+            Page<Long> idPage = rankedIdPage(spec, search.rankedIds(), page, size);
+            return markCapped(toPagedResponse(idPage, findCardsInOrder(idPage.getContent())), search);
+        }
+
+        Pageable pageable = createPageable(page, size, sortKey(sortBy), sortDirection);
+        Page<TourCardDto> cardPage = tourRepository.findCards(spec, pageable);
+        return markCapped(toPagedResponse(cardPage, cardPage.getContent()), search);
+    }
+
+    /**
+     * Sidebar facet counts for the filter. Each facet ignores its own predicate but honours
+     * all others; computed with one grouped query (or one pass over the in-memory index).
+     */
+    @Transactional(readOnly = true)
+    public Map<String, List<FacetCountDto>> getTourFacets(TourFilterDto filter) {
+        if (tourSearchIndex.supports(filter, null)) {
+            return tourSearchIndex.facets(filter);
+        }
+        TourFacets facets = new TourFacets(filter);
+        TourFilterDto base = TourFacets.withoutFacetPredicates(filter);
+        tourRepository.findFacetRows(filterSpec(base, fullTextSearch.match(base)))
+                .forEach(facets::add);
+        return facets.build();
+    }
+
+    // ==================== Full-text Search ====================
+
+    /** Fills search_document for rows written before it existed (and rows seeded directly). */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillSearchDocuments() {
+        List<Tour> tours = tourRepository.findBySearchDocumentIsNull();
+        if (tours.isEmpty()) {
+            return;
+        }
+        tourRepository.fetchDayInfo(tours.stream().map(Tour::getId).collect(Collectors.toList()));
+        tours.forEach(tour -> tourRepository.updateSearchDocument(tour.getId(), tour.buildSearchDocument()));
+        log.info("Backfilled search documents for {} tours", tours.size());
+    }
+
+    private Specification<Tour> filterSpec(TourFilterDto filter, TourFullTextSearch.Match search) {
+        Specification<Tour> spec = TourSpecification.withFilters(filter);
+        return search != null ? spec.and(search.spec()) : spec;
+    }
+
+    private static <R extends PagedResponse<?>> R markCapped(R response, TourFullTextSearch.Match search) {
+        if (search != null && search.capped()) {
+            response.setTruncated(true);
+        }
+        return response;
+    }
+
+    private static boolean isRankedSearch(TourFullTextSearch.Match search, String sortBy) {
+        return search != null && search.rankedIds() != null && SORT_RELEVANCE.equals(sortBy);
+    }
+
+    private static String sortKey(String sortBy) {
+        return SORT_RELEVANCE.equals(sortBy) ? null : sortBy;
+    }
+
+    /** Ranked matches that also pass the remaining predicates, paged in rank order. */
+    private Page<Long> rankedIdPage(Specification<Tour> spec, List<Long> rankedIds, int page, int size) {
+        Pageable pageable = PageRequest.of(PaginationConstants.normalizePageNumber(page),
+                PaginationConstants.normalizePageSize(size));
+        Set<Long> allowed = new HashSet<>(tourRepository.findIds(spec));
+        List<Long> matches = rankedIds.stream().filter(allowed::contains).toList();
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        return new PageImpl<>(matches.subList(from, to), pageable, matches.size());
+    }
+
+    // ==================== Autocomplete ====================
+
+    public List<TourSuggestionDto> suggest(String query, String language, int limit) {
+        return tourSuggestIndex.suggest(query, language, limit);
+    }
+
+    // ==================== Cursor (Keyset) Pagination ====================
+
+    @Transactional(readOnly = true)
+    public PagedResponse<?> filterToursByCursor(TourFilterDto filter, String cursor, int size,
+            String sortBy, String sortDirection, boolean cards) {
+        TourFullTextSearch.Match search = fullTextSearch.match(filter);
+        return markCapped(seekPage(filterSpec(filter, search), cursor, size, sortBy, sortDirection, cards), search);
+    }
+
+    @Transactional(readOnly = true)
+    public PagedResponse<?> getPublishedToursByCursor(String cursor, int size,
+            String sortBy, String sortDirection, boolean cards) {
+        return seekPage(TourSpecification.published(LocalDateTime.now()), cursor, size, sortBy, sortDirection, cards);
+    }
+
+    /**
+     * One keyset page: seeks past the cursor with WHERE (key, id) > / < (value, id), reads
+     * size + 1 rows to learn whether another page exists and never runs a count query.
+     */
+    private PagedResponse<?> seekPage(Specification<Tour> base, String token, int size,
+            String sortBy, String sortDirection, boolean cards) {
+        String key = KEYSET_SORT_KEYS.contains(sortBy) ? sortBy : "createdAt";
+        boolean ascending = "asc".equalsIgnoreCase(sortDirection);
+        KeysetCursor cursor = KeysetCursor.decode(token);
+        if (cursor != null && !cursor.key().equals(key)) {
+            throw new GlobalException(ErrorCodes.VALIDATION_ERROR);
+        }
+
+        int pageSize = PaginationConstants.normalizePageSize(size);
+        Specification<Tour> spec = base.and(TourSpecification.after(cursor, key, ascending));
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, key).and(Sort.by(direction, "id"));
+
+        if (cards) {
+            List<TourCardDto> rows = tourRepository.findCardSlice(spec, sort, pageSize + 1);
+            boolean hasNext = rows.size() > pageSize;
+            List<TourCardDto> content = hasNext ? rows.subList(0, pageSize) : rows;
+            String next = null;
+            if (hasNext) {
+                TourCardDto last = content.get(content.size() - 1);
+                next = new KeysetCursor(key, cardKeyValue(last, key), last.id()).encode();
+            }
+            return toCursorResponse(content, pageSize, cursor == null, hasNext, next);
+        }
+
+        List<Tour> rows = tourRepository.findSlice(spec, sort, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        List<Tour> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String next = null;
+        if (hasNext) {
+            Tour last = page.get(page.size() - 1);
+            next = new KeysetCursor(key, tourKeyValue(last, key), last.getId()).encode();
+        }
+        return toCursorResponse(mapAll(page), pageSize, cursor == null, hasNext, next);
+    }
+
+    private static LocalDateTime tourKeyValue(Tour tour, String key) {
+        return switch (key) {
+            case "updatedAt" -> tour.getUpdatedAt();
+            case "startDate" -> tour.getStartDate();
+            default -> tour.getCreatedAt();
+        };
+    }
+
+    private static LocalDateTime cardKeyValue(TourCardDto card, String key) {
+        return switch (key) {
+            case "updatedAt" -> card.updatedAt();
+            case "startDate" -> card.startDate();
+            default -> card.createdAt();
+        };
+    }
+
+    private <T> PagedResponse<T> toCursorResponse(List<T> content, int size, boolean first,
+            boolean hasNext, String nextCursor) {
+        return PagedResponse.<T>builder()
+                .content(content)
+                .page(0)
+                .size(size)
+                .first(first)
+                .last(!hasNext)
+                .hasNext(hasNext)
+                .hasPrevious(!first)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     // ==================== Non-Paginated Methods ====================
 
+    @Transactional(readOnly = true)
     public List<TourResponseDto> getAllToursNonPaged() {
-        return tourRepository.findAll().stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return mapAll(tourRepository.findAll());
     }
 
+    @Transactional(readOnly = true)
     public List<TourResponseDto> getActiveToursNonPaged() {
-        return tourRepository.findByIsActiveTrue().stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return mapAll(tourRepository.findByIsActiveTrue());
     }
 
+    @Transactional(readOnly = true)
     public List<TourResponseDto> getPublishedToursNonPaged() {
-        return tourRepository.findByIsActiveTrueAndStatusAndStartDateAfter(
+        return mapAll(tourRepository.findByIsActiveTrueAndStatusAndStartDateAfter(
                 TourStatus.PUBLISHED,
-                LocalDateTime.now()).stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+                LocalDateTime.now()));
     }
 
+    @Transactional(readOnly = true)
     public List<TourResponseDto> getMyToursNonPaged() {
         Long userId = jwtHelper.getCurrentUserId();
-        return tourRepository.findByCreatedBy(userId).stream()
-                .map(this::mapToResponseDto)
-                .collect(Collectors.toList());
+        return mapAll(tourRepository.findByCreatedBy(userId));
     }
 
     // ==================== BULK IMPORT ====================
@@ -292,6 +534,7 @@ public class TourService {
             tour.setIsActive(true);
 
             Tour savedTour = tourRepository.save(tour);
+            eventPublisher.publishEvent(TourChangedEvent.of(savedTour, TourChangedEvent.Kind.CREATED));
             results.add(mapToResponseDto(savedTour));
         }
 
@@ -370,33 +613,85 @@ public class TourService {
                     .map(rc -> new TourRouteCoordinate(rc.getName(), rc.getCountry(), rc.getLat(), rc.getLng()))
                     .collect(Collectors.toList()));
         }
+
+        tour.refreshSearchDocument();
     }
 
     private Pageable createPageable(int page, int size, String sortBy, String sortDirection) {
         int normalizedPage = PaginationConstants.normalizePageNumber(page);
         int normalizedSize = PaginationConstants.normalizePageSize(size);
 
-        Sort sort = Sort.by(sortBy != null ? sortBy : "createdAt");
-        sort = "asc".equalsIgnoreCase(sortDirection) ? sort.ascending() : sort.descending();
+        // id as tie-breaker keeps page boundaries stable when sort values repeat
+        Sort.Direction direction = "asc".equalsIgnoreCase(sortDirection) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        String key = sortBy != null ? sortBy : "createdAt";
+        Sort sort = "id".equals(key)
+                ? Sort.by(direction, key)
+                : Sort.by(direction, key).and(Sort.by(direction, "id"));
 
         return PageRequest.of(normalizedPage, normalizedSize, sort);
     }
 
-    private PagedResponse<TourResponseDto> mapToPagedResponse(Page<Tour> tourPage) {
-        List<TourResponseDto> content = tourPage.getContent().stream()
+    /**
+     * Loads the lazy collections of all given tours with one query per collection,
+     * so mapping a page costs a fixed number of statements regardless of its size.
+     * Must run inside the transaction that loaded the tours.
+     */
+    private void fetchCollections(List<Tour> tours) {
+        if (tours.isEmpty()) {
+            return;
+        }
+        List<Long> ids = tours.stream().map(Tour::getId).collect(Collectors.toList());
+        tourRepository.fetchDayInfo(ids);
+        tourRepository.fetchDestinations(ids);
+        tourRepository.fetchRoute(ids);
+        tourRepository.fetchRouteCoordinates(ids);
+    }
+
+    /** Loads tours by id keeping the given order; ids deleted in the meantime are skipped. */
+    private List<Tour> findAllInOrder(List<Long> ids) {
+        Map<Long, Tour> byId = tourRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Tour::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<TourCardDto> findCardsInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, TourCardDto> byId = tourRepository.findCardSlice(TourSpecification.idIn(ids), Sort.unsorted(), ids.size())
+                .stream()
+                .collect(Collectors.toMap(TourCardDto::id, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<TourResponseDto> mapAll(List<Tour> tours) {
+        fetchCollections(tours);
+        return tours.stream()
                 .map(this::mapToResponseDto)
                 .collect(Collectors.toList());
+    }
+
+    private PagedResponse<TourResponseDto> mapToPagedResponse(Page<Tour> tourPage) {
+        return toPagedResponse(tourPage, mapAll(tourPage.getContent()));
+    }
 
-        return PagedResponse.<TourResponseDto>builder()
+    private <T> PagedResponse<T> toPagedResponse(Page<?> page, List<T> content) {
+        return PagedResponse.<T>builder()
                 .content(content)
-                .page(tourPage.getNumber())
-                .size(tourPage.getSize())
-                .totalElements(tourPage.getTotalElements())
-                .totalPages(tourPage.getTotalPages())
-                .first(tourPage.isFirst())
-                .last(tourPage.isLast())
-                .hasNext(tourPage.hasNext())
-                .hasPrevious(tourPage.hasPrevious())
+                .page(page.getNumber())
+                .size(page.getSize())
+                .totalElements(page.getTotalElements())
+                .totalPages(page.getTotalPages())
+                .first(page.isFirst())
+                .last(page.isLast())
+                .hasNext(page.hasNext())
+                .hasPrevious(page.hasPrevious())
                 .build();
     }
 
@@ -0,0 +1,217 @@
+package com.siempretour.Booking;
+
+import com.siempretour.Booking.Dto.BookingApprovalDto;
+import com.siempretour.Booking.Dto.BookingRejectionDto;
+import com.siempretour.Exceptions.GlobalException;
+import com.siempretour.Security.JwtHelper;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourCategory;
+import com.siempretour.Tours.Models.TourStatus;
+import com.siempretour.Tours.TourRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * approveBooking under contention: seats are taken with one conditional UPDATE per approval,
+ * so concurrent admins can never oversell a tour or approve the same booking twice. Reject is
+ * conditional on PENDING as well, so it can never overwrite an approval that took seats.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class BookingApprovalConcurrencyTest {
+
+    private static final int THREADS = 64;
+    private static final int SEATS = 20;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @MockitoBean
+    private JwtHelper jwtHelper;
+
+    private Tour tour;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtHelper.getCurrentUserId()).thenReturn(1L);
+        when(jwtHelper.hasRole(anyString())).thenReturn(true);
+
+        Tour newTour = new Tour();
+        newTour.setName("Japonya Turu");
+        newTour.setSlug("japonya-turu");
+        newTour.setCategory(TourCategory.OTHER);
+        newTour.setStatus(TourStatus.PUBLISHED);
+        newTour.setPrice(BigDecimal.valueOf(1000));
+        newTour.setDuration(7);
+        newTour.setMaxParticipants(SEATS);
+        newTour.setAvailableSeats(SEATS);
+        newTour.setStartDate(LocalDateTime.now().plusDays(30));
+        tour = tourRepository.save(newTour);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        tourRepository.deleteAll();
+    }
+
+    @Test
+    void newToursArePersistedWithTheInitialVersion() {
+        // A pre-set version would make Spring Data treat the tour as detached and merge a copy
+        Tour newTour = new Tour();
+        newTour.setName("Mısır Turu");
+        newTour.setSlug("misir-turu");
+        newTour.setCategory(TourCategory.OTHER);
+        newTour.setPrice(BigDecimal.valueOf(500));
+
+        Tour saved = tourRepository.save(newTour);
+
+        assertThat(saved).isSameAs(newTour);
+        assertThat(saved.getVersion()).isZero();
+    }
+
+    @Test
+    void concurrentApprovalsNeverOversell() throws Exception {
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(pendingBooking(1).getId());
+        }
+
+        List<Boolean> outcomes = approveConcurrently(bookingIds);
+
+        Tour after = tourRepository.findById(tour.getId()).orElseThrow();
+        assertThat(outcomes).filteredOn(Boolean::booleanValue).hasSize(SEATS);
+        assertThat(bookingRepository.findAll())
+                .filteredOn(b -> b.getStatus() == BookingStatus.APPROVED)
+                .hasSize(SEATS);
+        assertThat(after.getAvailableSeats()).isZero();
+        assertThat(after.getStatus()).isEqualTo(TourStatus.SOLD_OUT);
+        assertThat(after.getVersion()).isEqualTo(SEATS);
+    }
+
+    @Test
+    void concurrentApprovalsOfOneBookingTakeItsSeatsOnce() throws Exception {
+        Long bookingId = pendingBooking(3).getId();
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(bookingId);
+        }
+
+        List<Boolean> outcomes = approveConcurrently(bookingIds);
+
+        assertThat(outcomes).filteredOn(Boolean::booleanValue).hasSize(1);
+        assertThat(tourRepository.findById(tour.getId()).orElseThrow().getAvailableSeats()).isEqualTo(SEATS - 3);
+    }
+
+    @Test
+    void approveRacingRejectLeavesAConsistentBooking() throws Exception {
+        int trials = SEATS / 2;
+        int approved = 0;
+        for (int i = 0; i < trials; i++) {
+            Long bookingId = pendingBooking(1).getId();
+            BookingRejectionDto rejection = new BookingRejectionDto();
+            rejection.setRejectionReason("Kontenjan dolu");
+
+            List<Boolean> outcomes = race(List.of(
+                    () -> bookingService.approveBooking(bookingId, new BookingApprovalDto()),
+                    () -> bookingService.rejectBooking(bookingId, rejection)));
+
+            assertThat(outcomes).as("exactly one decision wins").containsExactlyInAnyOrder(true, false);
+            BookingStatus status = bookingRepository.findById(bookingId).orElseThrow().getStatus();
+            assertThat(status).isEqualTo(outcomes.get(0) ? BookingStatus.APPROVED : BookingStatus.REJECTED);
+            if (status == BookingStatus.APPROVED) {
+                approved++;
+            }
+        }
+
+        // Seats were taken exactly for the bookings that ended up approved
+        assertThat(tourRepository.findById(tour.getId()).orElseThrow().getAvailableSeats()).isEqualTo(SEATS - approved);
+    }
+
+    @Test
+    void decidedBookingsCannotBeCancelledOrRejected() {
+        when(jwtHelper.getCurrentUserId()).thenReturn(2L);
+        Long bookingId = pendingBooking(1).getId();
+        bookingService.approveBooking(bookingId, new BookingApprovalDto());
+
+        assertThatThrownBy(() -> bookingService.cancelBooking(bookingId)).isInstanceOf(GlobalException.class);
+        assertThatThrownBy(() -> bookingService.rejectBooking(bookingId, new BookingRejectionDto()))
+                .isInstanceOf(GlobalException.class);
+        assertThat(bookingRepository.findById(bookingId).orElseThrow().getStatus()).isEqualTo(BookingStatus.APPROVED);
+    }
+
+    /** Approves every id on its own thread, all released at once; true for each approval that went through. */
+    private List<Boolean> approveConcurrently(List<Long> bookingIds) throws Exception {
+        List<Runnable> approvals = new ArrayList<>();
+        for (Long bookingId : bookingIds) {
+            approvals.add(() -> bookingService.approveBooking(bookingId, new BookingApprovalDto()));
+        }
+        return race(approvals);
+    }
+
+    /** Runs every action on its own thread, all released at once; true for each that did not throw GlobalException. */
+    private List<Boolean> race(List<Runnable> actions) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(actions.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Runnable action : actions) {
+                Callable<Boolean> attempt = () -> {
+                    start.await();
+                    try {
+                        action.run();
+                        return true;
+                    } catch (GlobalException e) {
+                        return false;
+                    }
+                };
+                futures.add(executor.submit(attempt));
+            }
+            start.countDown();
+            List<Boolean> outcomes = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                outcomes.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Booking pendingBooking(int people) {
+        Booking booking = new Booking();
+        booking.setTour(tour);
+        booking.setUserId(2L);
+        booking.setUserEmail("guest@example.com");
+        booking.setNumberOfPeople(people);
+        booking.setStatus(BookingStatus.PENDING);
+        return bookingRepository.save(booking);
+    }
+}
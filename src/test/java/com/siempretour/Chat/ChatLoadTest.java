@@ -0,0 +1,188 @@
+package com.siempretour.Chat;
+
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourCategory;
+import com.siempretour.Tours.Models.TourStatus;
+import com.siempretour.Tours.TourRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Catalogue reads must not queue behind slow chat requests. Chats here search tours and then
+ * wait on a slow (mock) OpenAI round trip; with a connection pool smaller than the number of
+ * concurrent chats, a chat that kept its JDBC connection for the whole request (open-in-view)
+ * would starve /api/tours/filter. Its p99 under chat load has to stay well below the upstream
+ * delay.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "openai.api-key=test-key",
+        "spring.datasource.hikari.maximum-pool-size=4",
+        "chat.openai.guard.initial-limit=100",
+        "chat.openai.guard.max-limit=100",
+        "chat.openai.guard.queue-size=200"})
+@ActiveProfiles("test")
+class ChatLoadTest {
+
+    private static final int CHATS = 24;
+    private static final long UPSTREAM_DELAY_MS = 800;
+    private static final int CATALOGUE_REQUESTS = 60;
+    // Starved reads take seconds each; fail fast instead of waiting them all out
+    private static final Duration CATALOGUE_TIMEOUT = Duration.ofSeconds(2);
+
+    private static final MockOpenAiServer openAi;
+
+    static {
+        try {
+            openAi = MockOpenAiServer.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void openAiProperties(DynamicPropertyRegistry registry) {
+        registry.add("openai.base-url", openAi::baseUrl);
+    }
+
+    @AfterAll
+    static void stopOpenAi() {
+        openAi.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    @Test
+    void slowChatsDoNotStarveCatalogueReads() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            tourRepository.save(tour(i));
+        }
+        // Every chat searches with its own query, so the search cache cannot hide the DB access
+        AtomicInteger searches = new AtomicInteger();
+        openAi.respondWith((request, exchange) -> {
+            Thread.sleep(UPSTREAM_DELAY_MS);
+            if (MockOpenAiServer.hasToolResult(request)) {
+                MockOpenAiServer.json(exchange, MockOpenAiServer.answer("Japonya turlarımız var."));
+            } else {
+                MockOpenAiServer.json(exchange, MockOpenAiServer.searchToursCall("call_1",
+                        "{\"query\":\"Japonya " + searches.incrementAndGet() + "\"}"));
+            }
+        });
+
+        catalogueP99(); // warm-up: the first requests pay for class loading and JIT
+        long baseline = catalogueP99();
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger answered = new AtomicInteger();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> chatters = new ArrayList<>();
+        for (int i = 0; i < CHATS; i++) {
+            Thread chatter = new Thread(() -> {
+                while (running.get()) {
+                    HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/chat"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"message\":\"Japonya turu var mı?\",\"language\":\"tr\"}"))
+                            .build());
+                    if (response.statusCode() == 200 && response.body().contains("Japonya turlarımız var.")) {
+                        answered.incrementAndGet();
+                    } else {
+                        failures.add(response.statusCode() + " " + response.body());
+                    }
+                }
+            });
+            chatter.setDaemon(true);
+            chatter.start();
+            chatters.add(chatter);
+        }
+        long underLoad;
+        try {
+            // Let the first chats reach their tour search and second OpenAI round
+            Thread.sleep(UPSTREAM_DELAY_MS + 300);
+            underLoad = catalogueP99();
+        } finally {
+            running.set(false);
+            for (Thread chatter : chatters) {
+                chatter.join(30_000);
+            }
+        }
+
+        assertThat(failures).isEmpty();
+        assertThat(answered.get()).isGreaterThanOrEqualTo(CHATS);
+        assertThat(underLoad)
+                .as("catalogue p99 under chat load (baseline %d ms)", baseline)
+                .isLessThan(UPSTREAM_DELAY_MS / 2);
+    }
+
+    /** p99 latency in ms of sequential catalogue reads. */
+    private long catalogueP99() {
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < CATALOGUE_REQUESTS; i++) {
+            long start = System.nanoTime();
+            HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/api/tours/filter?page=0&size=10"))
+                    .timeout(CATALOGUE_TIMEOUT)
+                    .GET()
+                    .build());
+            latencies.add((System.nanoTime() - start) / 1_000_000);
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+        Collections.sort(latencies);
+        return latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static Tour tour(int i) {
+        Tour tour = new Tour();
+        tour.setName("Japonya Kültür Turu " + i);
+        tour.setSlug("japonya-kultur-turu-" + i);
+        tour.setDestination("Japonya");
+        tour.setCategory(TourCategory.OTHER);
+        tour.setStatus(TourStatus.PUBLISHED);
+        tour.setPrice(BigDecimal.valueOf(1000 + i));
+        tour.setMaxParticipants(20);
+        tour.setStartDate(LocalDateTime.now().plusDays(30 + i));
+        return tour;
+    }
+}
@@ -0,0 +1,40 @@
+package com.siempretour.Chat;
+
+import com.siempretour.Tours.TourChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChatSearchCacheTest {
+
+    private final ChatSearchCache cache = new ChatSearchCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    private final AtomicInteger searches = new AtomicInteger();
+
+    @Test
+    void foldedQueriesShareOneResult() {
+        cache.result("İtalya", "tr", this::search);
+        cache.result("ITALYA", "tr", this::search);
+
+        assertThat(searches).hasValue(1);
+    }
+
+    @Test
+    void seatChangesDropResults() {
+        cache.result("Japonya", "tr", this::search);
+
+        // The last seats went: the tour is SOLD_OUT and must no longer be offered
+        cache.onTourChanged(new TourChangedEvent(1L, "japonya-turu", "tr", "japonya-turu", "tr",
+                TourChangedEvent.Kind.SEATS));
+        cache.result("Japonya", "tr", this::search);
+
+        assertThat(searches).hasValue(2);
+    }
+
+    private String search() {
+        return "result " + searches.incrementAndGet();
+    }
+}
@@ -0,0 +1,74 @@
+package com.siempretour.Chat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siempretour.Filter.TourVectorIndex;
+import com.siempretour.Tours.CatalogueVersion;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.TourRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** search_tours: the query reaches the repository as sent, only the cache key is folded. */
+class ChatServiceToolTest {
+
+    private final TourRepository tourRepository = mock(TourRepository.class);
+    private final ChatService chatService;
+
+    ChatServiceToolTest() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        chatService = new ChatService(
+                tourRepository,
+                new ChatSearchCache(meterRegistry, 100, Duration.ofMinutes(10)),
+                new ChatAnswerCache(meterRegistry, mock(CatalogueVersion.class), false, 100, Duration.ofHours(1)),
+                new TourVectorIndex(tourRepository, false, 1024),
+                new ObjectMapper(),
+                "", "http://localhost", "gpt-4o-mini", 500, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1),
+                new OpenAiGuard(meterRegistry, 10, 2, 50, 50, Duration.ofSeconds(1), Duration.ofSeconds(10), 5,
+                        Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void searchesWithTheTrimmedQueryAsSent() {
+        Tour italya = new Tour();
+        italya.setId(1L);
+        italya.setName("İtalya Turu");
+        italya.setSlug("italya-turu");
+        italya.setPrice(BigDecimal.valueOf(2500));
+        italya.setUpdatedAt(LocalDateTime.now());
+        when(tourRepository.searchForChat(eq("İtalya"), eq("tr"), any(Pageable.class))).thenReturn(List.of(italya));
+
+        String result = chatService.runTool("search_tours", "{\"query\":\"  İtalya \"}", "tr");
+
+        assertThat(result).contains("İtalya Turu");
+        verify(tourRepository).searchForChat(eq("İtalya"), eq("tr"), any(Pageable.class));
+    }
+
+    @Test
+    void foldedSpellingsShareOneCachedResult() {
+        when(tourRepository.searchForChat(anyString(), any(), any(Pageable.class))).thenReturn(List.of());
+
+        String first = chatService.runTool("search_tours", "{\"query\":\"İtalya\"}", "tr");
+        String second = chatService.runTool("search_tours", "{\"query\":\"ITALYA\"}", "tr");
+        String third = chatService.runTool("search_tours", "{\"query\":\"italya\"}", "tr");
+
+        assertThat(second).isEqualTo(first);
+        assertThat(third).isEqualTo(first);
+        // One miss: the requested language, then all languages
+        verify(tourRepository, times(2)).searchForChat(anyString(), any(), any(Pageable.class));
+    }
+}
@@ -0,0 +1,354 @@
+package com.siempretour.Chat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourCategory;
+import com.siempretour.Tours.Models.TourStatus;
+import com.siempretour.Tours.TourChangedEvent;
+import com.siempretour.Tours.TourRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * POST /api/chat/stream end to end against a local mock of the streaming Chat Completions
+ * API: tool_calls assembled from argument fragments, each tool started as soon as its
+ * arguments are complete, and the upstream stream dropped when the browser goes away.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "openai.api-key=test-key",
+        "openai.read-timeout=PT1S",
+        "openai.stream-read-timeout=PT10S",
+        "logging.level.com.siempretour.Exceptions.GlobalExceptionHandler=DEBUG"})
+@ActiveProfiles("test")
+@ExtendWith(OutputCaptureExtension.class)
+class ChatStreamServiceTest {
+
+    private static final MockOpenAiServer openAi;
+
+    static {
+        try {
+            openAi = MockOpenAiServer.start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void openAiProperties(DynamicPropertyRegistry registry) {
+        registry.add("openai.base-url", openAi::baseUrl);
+    }
+
+    @AfterAll
+    static void stopOpenAi() {
+        openAi.close();
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final List<Tour> tours = new ArrayList<>();
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @BeforeEach
+    void setUp() {
+        openAi.reset();
+        tours.add(tourRepository.save(tour("Japonya Kültür Turu", "japonya-kultur-turu", "Japonya")));
+        tours.add(tourRepository.save(tour("Küba Salsa Turu", "kuba-salsa-turu", "Küba")));
+        // As TourService does, so the chat's relevance index sees the new tours
+        tours.forEach(t -> eventPublisher.publishEvent(TourChangedEvent.of(t, TourChangedEvent.Kind.CREATED)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        tourRepository.deleteAll(tours);
+        tours.forEach(t -> eventPublisher.publishEvent(TourChangedEvent.of(t, TourChangedEvent.Kind.DELETED)));
+        tours.clear();
+    }
+
+    @Test
+    void fragmentedToolCallsAreAssembled() throws Exception {
+        openAi.respondWith((request, exchange) -> {
+            OutputStream out = MockOpenAiServer.beginStream(exchange);
+            if (!MockOpenAiServer.hasToolResult(request)) {
+                MockOpenAiServer.event(out, toolCallChunk(0, "call_a", "search_tours", ""));
+                MockOpenAiServer.event(out, toolCallChunk(0, null, null, "{\"qu"));
+                MockOpenAiServer.event(out, toolCallChunk(0, null, null, "ery\":\"Japo"));
+                MockOpenAiServer.event(out, toolCallChunk(0, null, null, "nya\"}"));
+                MockOpenAiServer.event(out, toolCallChunk(1, "call_b", "search_tours", "{\"query\":"));
+                MockOpenAiServer.event(out, toolCallChunk(1, null, null, "\"Küba\"}"));
+                MockOpenAiServer.event(out, finishChunk("tool_calls"));
+            } else {
+                MockOpenAiServer.event(out, contentChunk("Japonya"));
+                MockOpenAiServer.event(out, contentChunk(" ve Küba"));
+                MockOpenAiServer.event(out, contentChunk(" turlarımız var."));
+                MockOpenAiServer.event(out, finishChunk("stop"));
+            }
+            MockOpenAiServer.done(out);
+        });
+
+        List<SseEvent> events = new ArrayList<>();
+        try (SseStream stream = openStream("Japonya ve Küba turları?")) {
+            for (SseEvent event = stream.next(); event != null; event = stream.next()) {
+                events.add(event);
+            }
+        }
+
+        assertThat(events).filteredOn(e -> e.name().equals("tool")).hasSize(2);
+        StringBuilder tokens = new StringBuilder();
+        events.stream().filter(e -> e.name().equals("token")).forEach(e -> tokens.append(e.data().path("text").asText()));
+        assertThat(tokens.toString()).isEqualTo("Japonya ve Küba turlarımız var.");
+        assertThat(events.get(events.size() - 1).name()).isEqualTo("done");
+        assertThat(events.get(events.size() - 1).data().path("reply").asText()).isEqualTo("Japonya ve Küba turlarımız var.");
+
+        assertThat(openAi.requests()).hasSize(2);
+        JsonNode followUp = openAi.requests().get(1).path("messages");
+        JsonNode assistant = followUp.get(followUp.size() - 3);
+        assertThat(assistant.path("role").asText()).isEqualTo("assistant");
+        assertThat(assistant.path("tool_calls").get(0).path("id").asText()).isEqualTo("call_a");
+        assertThat(assistant.path("tool_calls").get(0).path("function").path("arguments").asText())
+                .isEqualTo("{\"query\":\"Japonya\"}");
+        assertThat(assistant.path("tool_calls").get(1).path("id").asText()).isEqualTo("call_b");
+        assertThat(assistant.path("tool_calls").get(1).path("function").path("arguments").asText())
+                .isEqualTo("{\"query\":\"Küba\"}");
+
+        JsonNode japonya = followUp.get(followUp.size() - 2);
+        JsonNode kuba = followUp.get(followUp.size() - 1);
+        assertThat(japonya.path("tool_call_id").asText()).isEqualTo("call_a");
+        assertThat(japonya.path("content").asText()).contains("Japonya Kültür Turu");
+        assertThat(kuba.path("tool_call_id").asText()).isEqualTo("call_b");
+        assertThat(kuba.path("content").asText()).contains("Küba Salsa Turu");
+    }
+
+    @Test
+    void toolStartsBeforeTheStreamEnds() throws Exception {
+        CountDownLatch toolStarted = new CountDownLatch(1);
+        AtomicBoolean startedEarly = new AtomicBoolean();
+        openAi.respondWith((request, exchange) -> {
+            OutputStream out = MockOpenAiServer.beginStream(exchange);
+            if (!MockOpenAiServer.hasToolResult(request)) {
+                MockOpenAiServer.event(out, toolCallChunk(0, "call_a", "search_tours", "{\"query\":\"Japonya\"}"));
+                // The next call index means call_a is complete; hold the rest of the stream
+                // until the browser has been told that its search started
+                MockOpenAiServer.event(out, toolCallChunk(1, "call_b", "search_tours", "{\"query\":"));
+                startedEarly.set(toolStarted.await(5, TimeUnit.SECONDS));
+                MockOpenAiServer.event(out, toolCallChunk(1, null, null, "\"Küba\"}"));
+                MockOpenAiServer.event(out, finishChunk("tool_calls"));
+            } else {
+                MockOpenAiServer.event(out, contentChunk("Tamam."));
+                MockOpenAiServer.event(out, finishChunk("stop"));
+            }
+            MockOpenAiServer.done(out);
+        });
+
+        List<String> names = new ArrayList<>();
+        try (SseStream stream = openStream("Japonya ve Küba turları?")) {
+            for (SseEvent event = stream.next(); event != null; event = stream.next()) {
+                names.add(event.name());
+                if (event.name().equals("tool")) {
+                    toolStarted.countDown();
+                }
+            }
+        }
+
+        assertThat(startedEarly).isTrue();
+        assertThat(names).containsSubsequence("tool", "tool", "token", "done");
+    }
+
+    @Test
+    void streamsOutliveTheRegularReadTimeout() throws Exception {
+        openAi.respondWith((request, exchange) -> {
+            OutputStream out = MockOpenAiServer.beginStream(exchange);
+            for (int i = 0; i < 8; i++) {
+                MockOpenAiServer.event(out, contentChunk("kelime" + i + " "));
+                Thread.sleep(250);
+            }
+            MockOpenAiServer.event(out, finishChunk("stop"));
+            MockOpenAiServer.done(out);
+        });
+
+        List<SseEvent> events = new ArrayList<>();
+        try (SseStream stream = openStream("Uzun bir cevap")) {
+            for (SseEvent event = stream.next(); event != null; event = stream.next()) {
+                events.add(event);
+            }
+        }
+
+        // Two seconds of streaming against a one-second openai.read-timeout
+        assertThat(events).filteredOn(e -> e.name().equals("token")).hasSize(8);
+        assertThat(events.get(events.size() - 1).name()).isEqualTo("done");
+    }
+
+    @Test
+    void clientDisconnectAbortsTheUpstreamStream(CapturedOutput output) throws Exception {
+        int total = 200;
+        AtomicInteger written = new AtomicInteger();
+        CountDownLatch upstreamClosed = new CountDownLatch(1);
+        openAi.respondWith((request, exchange) -> {
+            OutputStream out = MockOpenAiServer.beginStream(exchange);
+            try {
+                for (int i = 0; i < total; i++) {
+                    MockOpenAiServer.event(out, contentChunk("kelime" + i + " "));
+                    written.incrementAndGet();
+                    Thread.sleep(20);
+                }
+                MockOpenAiServer.event(out, finishChunk("stop"));
+                MockOpenAiServer.done(out);
+            } catch (IOException e) {
+                upstreamClosed.countDown();
+                throw e;
+            }
+        });
+
+        try (SseStream stream = openStream("Uzun bir cevap ver")) {
+            for (int i = 0; i < 3; i++) {
+                assertThat(stream.next().name()).isEqualTo("token");
+            }
+        } // the browser goes away
+
+        assertThat(upstreamClosed.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(written.get()).isLessThan(total);
+        assertThat(openAi.requests()).hasSize(1);
+
+        // The container's disconnect notification is an ordinary event, not a server error
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!output.getOut().contains("Client disconnected") && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(output.getOut()).contains("Client disconnected")
+                .doesNotContain("ERROR")
+                .doesNotContain("HttpMessageNotWritableException");
+    }
+
+    // ==================== Helpers ====================
+
+    private SseStream openStream(String message) throws Exception {
+        String body = MockOpenAiServer.JSON.writeValueAsString(Map.of("message", message, "language", "tr"));
+        HttpResponse<InputStream> response = http.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/chat/stream"))
+                        .header("Content-Type", "application/json")
+                        .header("Accept", "text/event-stream")
+                        .timeout(Duration.ofSeconds(30))
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return new SseStream(response.body());
+    }
+
+    private record SseEvent(String name, JsonNode data) {
+    }
+
+    /** Minimal text/event-stream reader: one event per blank-line separated block. */
+    private static final class SseStream implements AutoCloseable {
+
+        private final InputStream body;
+        private final BufferedReader reader;
+
+        SseStream(InputStream body) {
+            this.body = body;
+            this.reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        }
+
+        SseEvent next() throws IOException {
+            String name = "message";
+            StringBuilder data = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    if (data.isEmpty()) continue;
+                    return new SseEvent(name, MockOpenAiServer.JSON.readTree(data.toString()));
+                }
+                if (line.startsWith("event:")) name = line.substring(6).trim();
+                if (line.startsWith("data:")) data.append(line.substring(5));
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+
+    private static Map<String, Object> toolCallChunk(int index, String id, String name, String arguments) {
+        Map<String, Object> function = new HashMap<>();
+        if (name != null) function.put("name", name);
+        function.put("arguments", arguments);
+        Map<String, Object> call = new HashMap<>();
+        call.put("index", index);
+        if (id != null) {
+            call.put("id", id);
+            call.put("type", "function");
+        }
+        call.put("function", function);
+        return Map.of("choices", List.of(Map.of("index", 0, "delta", Map.of("tool_calls", List.of(call)))));
+    }
+
+    private static Map<String, Object> contentChunk(String text) {
+        return Map.of("choices", List.of(Map.of("index", 0, "delta", Map.of("content", text))));
+    }
+
+    private static Map<String, Object> finishChunk(String reason) {
+        return Map.of("choices", List.of(Map.of("index", 0, "delta", Map.of(), "finish_reason", reason)));
+    }
+
+    private static Tour tour(String name, String slug, String destination) {
+        Tour tour = new Tour();
+        tour.setName(name);
+        tour.setSlug(slug);
+        tour.setDestination(destination);
+        tour.setCategory(TourCategory.OTHER);
+        tour.setStatus(TourStatus.PUBLISHED);
+        tour.setPrice(BigDecimal.valueOf(1500));
+        tour.setMaxParticipants(20);
+        tour.setStartDate(LocalDateTime.now().plusDays(40));
+        return tour;
+    }
+}
@@ -0,0 +1,136 @@
+package com.siempretour.Chat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for the Chat Completions API (POST {baseUrl}/chat/completions) on the JDK
+ * HttpServer. Tests install a {@link Handler} that answers each request, either as one JSON
+ * body or as a server-sent event stream; every request body is recorded.
+ */
+final class MockOpenAiServer implements AutoCloseable {
+
+    static final ObjectMapper JSON = new ObjectMapper();
+
+    /** Answers one parsed request body. */
+    interface Handler {
+        void handle(JsonNode request, HttpExchange exchange) throws Exception;
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<JsonNode> requests = new CopyOnWriteArrayList<>();
+    private volatile Handler handler = (request, exchange) -> exchange.sendResponseHeaders(500, -1);
+
+    private MockOpenAiServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/chat/completions", exchange -> {
+            try (exchange) {
+                JsonNode request;
+                try (InputStream body = exchange.getRequestBody()) {
+                    request = JSON.readTree(body);
+                }
+                requests.add(request);
+                handler.handle(request, exchange);
+            } catch (IOException e) {
+                // client went away mid-response
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        server.start();
+    }
+
+    static MockOpenAiServer start() throws IOException {
+        return new MockOpenAiServer();
+    }
+
+    String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    void respondWith(Handler handler) {
+        this.handler = handler;
+    }
+
+    List<JsonNode> requests() {
+        return requests;
+    }
+
+    /** Forgets recorded requests and answers 500 until the next {@link #respondWith}. */
+    void reset() {
+        requests.clear();
+        handler = (request, exchange) -> exchange.sendResponseHeaders(500, -1);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ==================== Responses ====================
+
+    static void json(HttpExchange exchange, Object body) throws IOException {
+        byte[] bytes = JSON.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    /** Starts an SSE response; write chunks with {@link #event} and end with {@link #done}. */
+    static OutputStream beginStream(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+        exchange.sendResponseHeaders(200, 0);
+        return exchange.getResponseBody();
+    }
+
+    static void event(OutputStream out, Object chunk) throws IOException {
+        out.write(("data: " + JSON.writeValueAsString(chunk) + "\n\n").getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    static void done(OutputStream out) throws IOException {
+        out.write("data: [DONE]\n\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /** Non-streamed completion whose message is the final answer. */
+    static Map<String, Object> answer(String content) {
+        return Map.of("choices", List.of(Map.of(
+                "message", Map.of("role", "assistant", "content", content),
+                "finish_reason", "stop")));
+    }
+
+    /** Non-streamed completion asking for one search_tours call. */
+    static Map<String, Object> searchToursCall(String id, String argumentsJson) {
+        Map<String, Object> call = Map.of("id", id, "type", "function",
+                "function", Map.of("name", "search_tours", "arguments", argumentsJson));
+        return Map.of("choices", List.of(Map.of(
+                "message", Map.of("role", "assistant", "tool_calls", List.of(call)),
+                "finish_reason", "tool_calls")));
+    }
+
+    /** True once the conversation already carries a tool result. */
+    static boolean hasToolResult(JsonNode request) {
+        for (JsonNode message : request.path("messages")) {
+            if ("tool".equals(message.path("role").asText())) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package com.siempretour.Chat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OpenAiGuardTest {
+
+    private static final int FAILURE_THRESHOLD = 3;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OpenAiGuard guard = new OpenAiGuard(meterRegistry, 10, 2, 50, 50,
+            Duration.ofMillis(100), Duration.ofSeconds(10), FAILURE_THRESHOLD, Duration.ofMinutes(1));
+
+    @Test
+    void clientErrorsDoNotOpenTheCircuit() {
+        for (int i = 0; i < FAILURE_THRESHOLD * 3; i++) {
+            fail(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null));
+            fail(new IllegalStateException("client went away"));
+        }
+
+        assertThat(gauge("chat.openai.circuit_state")).isZero();
+        assertThat(gauge("chat.openai.in_flight")).isZero();
+        assertThat(gauge("chat.openai.limit")).isEqualTo(10);
+        try (OpenAiGuard.Permit permit = guard.acquire()) {
+            permit.succeeded();
+        }
+    }
+
+    @Test
+    void serverErrorsOpenTheCircuit() {
+        assertOpensAfterThreshold(HttpServerErrorException.create(
+                HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, null));
+    }
+
+    @Test
+    void rateLimitsOpenTheCircuit() {
+        assertOpensAfterThreshold(HttpClientErrorException.create(
+                HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", null, null, null));
+    }
+
+    @Test
+    void timeoutsOpenTheCircuit() {
+        assertOpensAfterThreshold(new ResourceAccessException("read timed out",
+                new HttpTimeoutException("request timed out")));
+    }
+
+    @Test
+    void unclassifiedCloseCountsAsFailure() {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            guard.acquire().close();
+        }
+
+        assertThatThrownBy(guard::acquire).isInstanceOf(OpenAiGuard.RejectedException.class);
+    }
+
+    @Test
+    void providerFailuresAreFoundInTheCauseChain() {
+        assertThat(OpenAiGuard.isProviderFailure(new RuntimeException(new IOException("reset")))).isTrue();
+        assertThat(OpenAiGuard.isProviderFailure(HttpClientErrorException.create(
+                HttpStatus.UNAUTHORIZED, "Unauthorized", null, null, null))).isFalse();
+        assertThat(OpenAiGuard.isProviderFailure(new IllegalArgumentException())).isFalse();
+    }
+
+    private void assertOpensAfterThreshold(RuntimeException error) {
+        for (int i = 0; i < FAILURE_THRESHOLD; i++) {
+            fail(error);
+        }
+
+        assertThat(gauge("chat.openai.in_flight")).isZero();
+        assertThatThrownBy(guard::acquire)
+                .isInstanceOf(OpenAiGuard.RejectedException.class)
+                .hasMessageContaining("circuit open");
+    }
+
+    private void fail(RuntimeException error) {
+        try (OpenAiGuard.Permit permit = guard.acquire()) {
+            permit.failed(error);
+        }
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+}
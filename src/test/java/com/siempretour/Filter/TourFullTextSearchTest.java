@@ -0,0 +1,28 @@
+package com.siempretour.Filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TourFullTextSearchTest {
+
+    @Test
+    void dottedCapitalIStaysInOneTerm() {
+        assertThat(TourFullTextSearch.terms("İtalya")).containsExactly("italya");
+        assertThat(TourFullTextSearch.terms("İSTANBUL Turu")).containsExactly("istanbul", "turu");
+    }
+
+    @Test
+    void precomposedTurkishLettersAreKept() {
+        assertThat(TourFullTextSearch.terms("Küba Mısır")).containsExactly("küba", "mısır");
+        // Decomposed input is composed first, so it matches the stored (NFC) text
+        assertThat(TourFullTextSearch.terms("Küba")).containsExactly("küba");
+    }
+
+    @Test
+    void punctuationCannotReachTsQuerySyntax() {
+        assertThat(TourFullTextSearch.terms("japonya & !kore:*")).containsExactly("japonya", "kore");
+        assertThat(TourFullTextSearch.terms("  ")).isEmpty();
+        assertThat(TourFullTextSearch.terms(null)).isEmpty();
+    }
+}
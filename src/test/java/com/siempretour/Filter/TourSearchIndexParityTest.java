@@ -0,0 +1,147 @@
+package com.siempretour.Filter;
+
+import com.siempretour.Tours.Dto.TourFilterDto;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourCategory;
+import com.siempretour.Tours.Models.TourStatus;
+import com.siempretour.Tours.TourChangedEvent;
+import com.siempretour.Tours.TourRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The in-memory index must return the same ids, in the same order, with the same totals as
+ * the JPA specification path for every filter/sort it claims to support.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TourSearchIndexParityTest {
+
+    private static final List<String> SORT_KEYS = List.of(
+            "id", "createdAt", "startDate", "endDate", "price", "discountedPrice", "duration", "availableSeats");
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    private TourSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        tourRepository.deleteAll();
+        LocalDateTime base = LocalDateTime.of(2030, 5, 1, 10, 0);
+        String[] destinations = {"Japonya", "İtalya", "Küba", "Mısır"};
+        TourCategory[] categories = TourCategory.values();
+        for (int i = 0; i < 40; i++) {
+            Tour tour = new Tour();
+            tour.setName((i % 3 == 0 ? "Kültür Turu " : "Doğa Gezisi ") + i);
+            tour.setSlug("tour-" + i);
+            tour.setLanguage(i % 4 == 0 ? "en" : "tr");
+            tour.setDestination(destinations[i % destinations.length]);
+            tour.setPlacesVisited("Yer " + (i % 5));
+            tour.setCategory(categories[i % categories.length]);
+            tour.setStatus(i % 5 == 0 ? TourStatus.DRAFT : TourStatus.PUBLISHED);
+            tour.setIsActive(i % 9 != 0);
+            tour.setDepartureCity(i % 2 == 0 ? "Istanbul" : "Ankara");
+            tour.setDuration(i % 7 == 0 ? null : 3 + i % 6);
+            tour.setStartDate(i % 8 == 0 ? null : base.plusDays(i % 10));
+            tour.setEndDate(i % 8 == 0 ? null : base.plusDays(i % 10 + 5));
+            tour.setPrice(i % 6 == 0 ? null : BigDecimal.valueOf(1000 + (i % 4) * 250));
+            tour.setDiscountedPrice(i % 3 == 0 ? BigDecimal.valueOf(900 + (i % 4) * 100) : null);
+            tour.setMaxParticipants(10 + i % 3);
+            tour.setAvailableSeats(i % 5);
+            tourRepository.save(tour);
+        }
+        index = new TourSearchIndex(tourRepository, true);
+        index.rebuild();
+    }
+
+    @Test
+    void filtersAndSortsMatchTheJpaPath() {
+        List<TourFilterDto> filters = new ArrayList<>();
+        filters.add(new TourFilterDto());
+        filters.add(filter(f -> f.setLanguage("tr")));
+        filters.add(filter(f -> f.setDestination("Japonya")));
+        filters.add(filter(f -> f.setName("kültür")));
+        filters.add(filter(f -> f.setStatus(TourStatus.PUBLISHED)));
+        filters.add(filter(f -> f.setDepartureCity("ank")));
+        filters.add(filter(f -> {
+            f.setMinPrice(BigDecimal.valueOf(1200));
+            f.setMaxPrice(BigDecimal.valueOf(1600));
+        }));
+        filters.add(filter(f -> f.setHasDiscount(true)));
+        filters.add(filter(f -> {
+            f.setMinDuration(4);
+            f.setMaxDuration(7);
+        }));
+        filters.add(filter(f -> f.setStartDateFrom(LocalDateTime.of(2030, 5, 4, 0, 0))));
+        filters.add(filter(f -> f.setHasAvailability(true)));
+
+        for (TourFilterDto filter : filters) {
+            for (String sortBy : SORT_KEYS) {
+                for (boolean ascending : new boolean[]{true, false}) {
+                    assertThat(index.supports(filter, sortBy)).isTrue();
+                    assertSamePage(filter, sortBy, ascending, 0, 7);
+                    assertSamePage(filter, sortBy, ascending, 1, 7);
+                }
+            }
+        }
+    }
+
+    @Test
+    void nameSortIsLeftToTheDatabase() {
+        assertThat(index.supports(new TourFilterDto(), "name")).isFalse();
+    }
+
+    @Test
+    void tourChangesAreAppliedFromTheCommittedRow() {
+        Tour tour = tourRepository.findAll(Sort.by("id")).get(1);
+        tour.setDestination("Küba");
+        tour.setPrice(BigDecimal.valueOf(4321));
+        tourRepository.save(tour);
+        index.onTourChanged(TourChangedEvent.of(tour, TourChangedEvent.Kind.UPDATED));
+
+        TourFilterDto filter = filter(f -> f.setMinPrice(BigDecimal.valueOf(4000)));
+        assertThat(index.search(filter, 0, 10, "id", true).ids()).containsExactly(tour.getId());
+        assertSamePage(filter(f -> f.setDestination("Küba")), "price", true, 0, 20);
+
+        tour.setIsActive(false);
+        tourRepository.save(tour);
+        index.onTourChanged(TourChangedEvent.of(tour, TourChangedEvent.Kind.UPDATED));
+        assertThat(index.search(filter, 0, 10, "id", true).ids()).isEmpty();
+    }
+
+    private void assertSamePage(TourFilterDto filter, String sortBy, boolean ascending, int page, int size) {
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = "id".equals(sortBy)
+                ? Sort.by(direction, sortBy)
+                : Sort.by(direction, sortBy).and(Sort.by(direction, "id"));
+        Page<Tour> expected = tourRepository.findAll(TourSpecification.withFilters(filter), PageRequest.of(page, size, sort));
+        TourSearchIndex.Result actual = index.search(filter, page, size, sortBy, ascending);
+
+        String context = "filter=" + filter + " sort=" + sortBy + (ascending ? " asc" : " desc") + " page=" + page;
+        assertThat(actual.total()).as(context).isEqualTo(expected.getTotalElements());
+        assertThat(actual.ids()).as(context).containsExactlyElementsOf(expected.map(Tour::getId).getContent());
+    }
+
+    private static TourFilterDto filter(Consumer<TourFilterDto> customizer) {
+        TourFilterDto filter = new TourFilterDto();
+        customizer.accept(filter);
+        return filter;
+    }
+}
@@ -0,0 +1,120 @@
+package com.siempretour.Filter;
+
+import com.siempretour.Tours.Dto.TourSuggestionDto;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourRouteStop;
+import com.siempretour.Tours.TourRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latency of /api/tours/suggest at 10k active tours: typo queries against a catalogue of
+ * generated tour names, destinations and route stops, timed per call after a warm-up.
+ */
+class TourSuggestIndexBenchmarkTest {
+
+    private static final int TOURS = 10_000;
+    private static final int WARMUP_ROUNDS = 300;
+    private static final int MEASURED_ROUNDS = 100;
+    private static final long P50_BUDGET_NANOS = 1_000_000;
+    // Loose on purpose: on shared single-core runners the tail is dominated by ~4ms stalls where
+    // the runner is descheduled, whatever the query; the median is the index's own cost
+    private static final long P99_BUDGET_NANOS = 25_000_000;
+
+    private static final String[][] COUNTRIES = {
+            {"Japonya", "Tokyo", "Kyoto", "Osaka", "Nara"},
+            {"İtalya", "Roma", "Floransa", "Venedik", "Napoli"},
+            {"İspanya", "Barselona", "Madrid", "Sevilla", "Granada"},
+            {"Mısır", "Kahire", "Luksor", "Asvan", "İskenderiye"},
+            {"Peru", "Lima", "Cusco", "Machu Picchu", "Arequipa"},
+            {"Küba", "Havana", "Trinidad", "Varadero", "Cienfuegos"},
+            {"Fransa", "Paris", "Bordeaux", "Lyon", "Nice"},
+            {"Rusya", "Moskova", "St. Petersburg", "Kazan", "Soçi"},
+            {"Kolombiya", "Bogota", "Medellin", "Cartagena", "Cali"},
+            {"Endonezya", "Bali", "Ubud", "Cakarta", "Lombok"},
+            {"Meksika", "Cancún", "Mexico City", "Oaxaca", "Tulum"},
+            {"Yunanistan", "Atina", "Santorini", "Mikonos", "Girit"},
+    };
+    private static final String[] THEMES = {
+            "Kültür", "Balayı", "Gurme", "Doğa", "Fotoğraf", "Şarap", "Tarih", "Festival", "Yürüyüş", "Lüks"};
+    private static final String[] QUERIES = {
+            "japon", "kyto", "itlay", "barselona", "kahre", "machu", "havna", "bordo", "moskva",
+            "kartagena", "bali", "kankun", "santorni", "roma", "is", "balayi", "gurme tur", "peru kultur"};
+
+    private TourSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<Tour> tours = new ArrayList<>(TOURS);
+        for (int i = 0; i < TOURS; i++) {
+            String[] country = COUNTRIES[i % COUNTRIES.length];
+            String theme = THEMES[(i / COUNTRIES.length) % THEMES.length];
+            Tour tour = new Tour();
+            tour.setId((long) i + 1);
+            tour.setName(country[0] + " " + theme + " Turu " + (i / (COUNTRIES.length * THEMES.length) + 1));
+            tour.setSlug("tur-" + i);
+            tour.setLanguage((i / COUNTRIES.length) % 4 == 0 ? "en" : "tr");
+            tour.setIsActive(true);
+            tour.setDestination(country[0]);
+            tour.setDestinations(new ArrayList<>(List.of(country[0])));
+            List<TourRouteStop> route = new ArrayList<>();
+            for (String city : Arrays.copyOfRange(country, 1, country.length)) {
+                route.add(new TourRouteStop(city, country[0]));
+            }
+            tour.setRoute(route);
+            tours.add(tour);
+        }
+        TourRepository tourRepository = mock(TourRepository.class);
+        when(tourRepository.findByIsActiveTrue()).thenReturn(tours);
+
+        index = new TourSuggestIndex(tourRepository);
+        index.loadOnStartup();
+    }
+
+    @Test
+    void typoQueriesStayFastAtTenThousandTours() {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            for (String query : QUERIES) {
+                index.suggest(query, null, TourSuggestIndex.DEFAULT_LIMIT);
+            }
+        }
+
+        long[] nanos = new long[MEASURED_ROUNDS * QUERIES.length];
+        int n = 0;
+        for (int round = 0; round < MEASURED_ROUNDS; round++) {
+            for (String query : QUERIES) {
+                long start = System.nanoTime();
+                index.suggest(query, round % 2 == 0 ? "tr" : null, TourSuggestIndex.DEFAULT_LIMIT);
+                nanos[n++] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        long p50 = nanos[nanos.length / 2];
+        long p99 = nanos[(int) Math.ceil(nanos.length * 0.99) - 1];
+        System.out.printf("suggest over %d tours: p50=%.3fms p99=%.3fms max=%.3fms%n",
+                TOURS, p50 / 1e6, p99 / 1e6, nanos[nanos.length - 1] / 1e6);
+
+        assertThat(p50).isLessThan(P50_BUDGET_NANOS);
+        assertThat(p99).isLessThan(P99_BUDGET_NANOS);
+    }
+
+    @Test
+    void typosStillFindTheirPlaces() {
+        assertThat(texts(index.suggest("kyto", "tr", 3))).contains("Kyoto");
+        assertThat(texts(index.suggest("itlay", null, 3))).contains("İtalya");
+        assertThat(texts(index.suggest("barselona", "tr", 3))).contains("Barselona");
+        assertThat(texts(index.suggest("japon", "tr", 3))).first().isEqualTo("Japonya");
+    }
+
+    private static List<String> texts(List<TourSuggestionDto> suggestions) {
+        return suggestions.stream().map(TourSuggestionDto::text).toList();
+    }
+}
@@ -0,0 +1,154 @@
+package com.siempretour.Filter;
+
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourCategory;
+import com.siempretour.Tours.Models.TourDay;
+import com.siempretour.Tours.Models.TourStatus;
+import com.siempretour.Tours.TourRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recall/precision benchmark for the chat relevance index on a small Turkish catalogue whose
+ * descriptions share the usual filler ("tur", "gün", "otel", "rehber") and many destinations
+ * end in -ya, which is where hashed trigram scores alone let unrelated tours through.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class TourVectorIndexRelevanceTest {
+
+    private static final int LIMIT = 5;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    private TourVectorIndex index;
+    private final Map<String, Long> ids = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        tourRepository.deleteAll();
+        add("japonya", "tr", "Japonya Kiraz Çiçekleri Turu", "Japonya", "Tokyo, Kyoto, Osaka",
+                "Tokyo'da modern şehir turu", "Kyoto tapınakları ve geleneksel çay seremonisi, otel konaklama");
+        add("misir", "tr", "Mısır Piramitler ve Nil Turu", "Mısır", "Kahire, Luksor, Asvan",
+                "Kahire ve Giza piramitleri", "Nil nehri üzerinde gemi turu, rehber eşliğinde tapınaklar");
+        add("italya", "tr", "İtalya Rönesans Turu", "İtalya", "Roma, Floransa, Venedik",
+                "Roma'da antik şehir turu", "Floransa müzeleri ve Toskana, otel konaklama");
+        add("kolombiya", "tr", "Kolombiya Kahve Yolu Turu", "Kolombiya", "Bogota, Medellin, Cartagena",
+                "Kahve çiftliklerinde tadım", "Cartagena sahilleri, rehber eşliğinde gün boyu gezi");
+        add("rusya", "tr", "Rusya Beyaz Geceler Turu", "Rusya", "Moskova, St. Petersburg",
+                "Kızıl Meydan ve Kremlin", "Hermitage müzesi, otel konaklama ve tekne turu");
+        add("patagonya", "tr", "Patagonya Buzulları Turu", "Arjantin", "El Calafate, Ushuaia, Patagonya",
+                "Perito Moreno buzulu", "Ushuaia ve dünyanın sonu, rehber eşliğinde doğa yürüyüşü");
+        add("fransa", "tr", "Fransa Bordeaux Şarap Turu", "Fransa", "Bordeaux, Saint-Émilion",
+                "Şato ziyaretleri ve şarap tadımı", "Saint-Émilion bağları, otel konaklama");
+        add("bordeaux-en", "en", "Bordeaux Wine Tour", "France", "Bordeaux, Saint-Émilion",
+                "Château visits and wine tasting", "Vineyards of Saint-Émilion, hotel stay");
+        add("kuba", "tr", "Küba Salsa ve Havana Turu", "Küba", "Havana, Trinidad, Varadero",
+                "Havana eski şehir turu", "Varadero plajları ve salsa gecesi, otel konaklama");
+        add("peru", "tr", "Peru Machu Picchu Turu", "Peru", "Lima, Cusco, Machu Picchu",
+                "İnka izinde Cusco", "Machu Picchu antik kenti, rehber eşliğinde gün boyu gezi");
+        add("maldivler", "tr", "Maldivler Balayı Turu", "Maldivler", "Male",
+                "Su üstü villada balayı", "Şnorkel ve spa, otel konaklama");
+        add("endonezya", "tr", "Endonezya Bali Balayı Turu", "Endonezya", "Bali, Ubud",
+                "Ubud pirinç terasları", "Bali plajları, balayı çiftlerine özel akşam yemeği");
+
+        index = new TourVectorIndex(tourRepository, true, 1024);
+        index.loadOnStartup();
+    }
+
+    @Test
+    void recallAndPrecision() {
+        Map<String, Set<String>> relevant = new LinkedHashMap<>();
+        relevant.put("Japonya", Set.of("japonya"));
+        relevant.put("japon", Set.of("japonya"));
+        relevant.put("Japonya'da tur", Set.of("japonya"));
+        relevant.put("Patagonya", Set.of("patagonya"));
+        relevant.put("İtalya", Set.of("italya"));
+        relevant.put("ITALYA", Set.of("italya"));
+        relevant.put("Rusya", Set.of("rusya"));
+        relevant.put("Mısır piramitler", Set.of("misir"));
+        relevant.put("Kolombiya kahve", Set.of("kolombiya"));
+        relevant.put("kuba", Set.of("kuba"));
+        relevant.put("Machu Picchu", Set.of("peru"));
+        relevant.put("wine tasting", Set.of("bordeaux-en"));
+        relevant.put("şarap tadımı", Set.of("fransa"));
+        relevant.put("balayı", Set.of("maldivler", "endonezya"));
+        relevant.put("Kanada", Set.of());
+
+        int returned = 0;
+        int hits = 0;
+        int expected = 0;
+        for (Map.Entry<String, Set<String>> query : relevant.entrySet()) {
+            Set<String> found = search(query.getKey());
+            Set<String> correct = new HashSet<>(found);
+            correct.retainAll(query.getValue());
+            returned += found.size();
+            hits += correct.size();
+            expected += query.getValue().size();
+            assertThat(found).as("results for \"%s\"", query.getKey()).containsAll(query.getValue());
+        }
+        double precision = returned == 0 ? 1.0 : (double) hits / returned;
+        double recall = (double) hits / expected;
+        assertThat(recall).isEqualTo(1.0);
+        assertThat(precision).as("precision over %d results", returned).isGreaterThanOrEqualTo(0.9);
+    }
+
+    @Test
+    void unrelatedToursSharingSuffixesAreNotReturned() {
+        assertThat(search("Japonya")).doesNotContain("misir", "italya", "kolombiya", "rusya");
+        assertThat(search("Patagonya")).doesNotContain("italya", "kolombiya", "japonya");
+        assertThat(search("wine tasting")).doesNotContain("rusya", "misir");
+        assertThat(search("Kanada")).isEmpty();
+    }
+
+    private Set<String> search(String query) {
+        Set<String> keys = new HashSet<>();
+        for (Long id : index.search(query, null, LIMIT)) {
+            ids.forEach((key, value) -> {
+                if (value.equals(id)) keys.add(key);
+            });
+        }
+        return keys;
+    }
+
+    private void add(String key, String language, String name, String destination, String places,
+            String day1, String day2) {
+        Tour tour = new Tour();
+        tour.setName(name);
+        tour.setSlug(key);
+        tour.setLanguage(language);
+        tour.setDestination(destination);
+        tour.setPlacesVisited(places);
+        tour.setGeneralInfo("<p>" + name + ": " + day1 + ". Tüm transferler ve rehberlik dahildir.</p>");
+        tour.setCategory(TourCategory.OTHER);
+        tour.setStatus(TourStatus.PUBLISHED);
+        tour.setPrice(BigDecimal.valueOf(2000));
+        int dayNumber = 1;
+        for (String description : List.of(day1, day2)) {
+            TourDay day = new TourDay();
+            day.setDayNumber(dayNumber);
+            day.setTitle(dayNumber + ". Gün");
+            day.setDescription(description);
+            day.setTour(tour);
+            tour.getDayInfo().add(day);
+            dayNumber++;
+        }
+        ids.put(key, tourRepository.save(tour).getId());
+    }
+}
@@ -0,0 +1,65 @@
+package com.siempretour.Homepage;
+
+import com.siempretour.Tours.TourChangedEvent;
+import com.siempretour.Tours.TourRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class HomepageServiceTest {
+
+    private final HomepageRepository homepageRepository = mock(HomepageRepository.class);
+    private final HomepageService service = new HomepageService(
+            homepageRepository, mock(TourRepository.class), mock(ApplicationEventPublisher.class));
+
+    @Test
+    void unsupportedLanguagesShareTheDefaultPayload() {
+        HomepagePayload tr = service.getPublicPayload("tr");
+
+        assertThat(service.getPublicPayload(null)).isSameAs(tr);
+        assertThat(service.getPublicPayload(" TR ")).isSameAs(tr);
+        assertThat(service.getPublicPayload("xx")).isSameAs(tr);
+        assertThat(service.getPublicPayload("de-DE")).isSameAs(tr);
+        // Built once: junk ?lang= values neither rebuild nor add cache entries
+        verify(homepageRepository, times(1)).findById(any());
+    }
+
+    @Test
+    void englishIsCachedSeparately() {
+        HomepagePayload en = service.getPublicPayload("EN");
+
+        assertThat(service.getPublicPayload("en")).isSameAs(en);
+        assertThat(service.getPublicPayload("tr")).isNotSameAs(en);
+    }
+
+    @Test
+    void payloadBuiltWhileATourChangesIsNotKept() {
+        HomepageConfig config = new HomepageConfig();
+        config.setSection2Json("[\"kyoto-turu\"]");
+        AtomicBoolean firstRead = new AtomicBoolean(true);
+        when(homepageRepository.findById(any())).thenAnswer(invocation -> {
+            // The first build has read nothing yet when an edit of the featured tour commits
+            if (firstRead.getAndSet(false)) {
+                service.onTourChanged(new TourChangedEvent(1L, "kyoto-turu", "tr", "kyoto-turu", "tr",
+                        TourChangedEvent.Kind.UPDATED));
+            }
+            return Optional.of(config);
+        });
+
+        HomepagePayload during = service.getPublicPayload("tr");
+        HomepagePayload after = service.getPublicPayload("tr");
+
+        assertThat(after).isNotSameAs(during);
+        assertThat(service.getPublicPayload("tr")).isSameAs(after);
+        verify(homepageRepository, times(2)).findById(any());
+    }
+}
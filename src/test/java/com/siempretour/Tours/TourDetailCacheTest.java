@@ -0,0 +1,53 @@
+package com.siempretour.Tours;
+
+import com.siempretour.Tours.Dto.TourResponseDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TourDetailCacheTest {
+
+    private final TourDetailCache cache = new TourDetailCache(new SimpleMeterRegistry(), 1 << 20, Duration.ofMinutes(30));
+
+    @Test
+    void hitsSkipTheLoader() {
+        AtomicInteger loads = new AtomicInteger();
+
+        TourResponseDto first = cache.get("kyoto", "tr", () -> dto("Kyoto", loads));
+        TourResponseDto second = cache.get("kyoto", "tr", () -> dto("Kyoto", loads));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void pageLoadedDuringAWriteIsNotKept() {
+        AtomicInteger loads = new AtomicInteger();
+
+        // The reader has the old row in hand when the writer's after-commit eviction runs
+        TourResponseDto stale = cache.get("kyoto", "tr", () -> {
+            TourResponseDto dto = dto("Kyoto", loads);
+            cache.onTourChanged(new TourChangedEvent(1L, "kyoto", "tr", "kyoto", "tr", TourChangedEvent.Kind.UPDATED));
+            return dto;
+        });
+        TourResponseDto fresh = cache.get("kyoto", "tr", () -> dto("Kyoto (güncel)", loads));
+
+        assertThat(stale.getName()).isEqualTo("Kyoto");
+        assertThat(fresh.getName()).isEqualTo("Kyoto (güncel)");
+        assertThat(loads).hasValue(2);
+        assertThat(cache.get("kyoto", "tr", () -> dto("unused", loads))).isSameAs(fresh);
+    }
+
+    private static TourResponseDto dto(String name, AtomicInteger loads) {
+        loads.incrementAndGet();
+        TourResponseDto dto = new TourResponseDto();
+        dto.setName(name);
+        dto.setSlug("kyoto");
+        dto.setLanguage("tr");
+        return dto;
+    }
+}
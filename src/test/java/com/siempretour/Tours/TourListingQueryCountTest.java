@@ -0,0 +1,118 @@
+package com.siempretour.Tours;
+
+import com.siempretour.Filter.PagedResponse;
+import com.siempretour.Filter.PaginationConstants;
+import com.siempretour.Security.JwtHelper;
+import com.siempretour.Tours.Dto.TourFilterDto;
+import com.siempretour.Tours.Dto.TourResponseDto;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourCategory;
+import com.siempretour.Tours.Models.TourDay;
+import com.siempretour.Tours.Models.TourRouteCoordinate;
+import com.siempretour.Tours.Models.TourRouteStop;
+import com.siempretour.Tours.Models.TourStatus;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Listing pages load their collections in one query per collection, so the number of
+ * statements per page must not grow with the page size.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class TourListingQueryCountTest {
+
+    private static final int TOURS = PaginationConstants.MAX_PAGE_SIZE;
+    private static final long MAX_STATEMENTS_PER_PAGE = 6;
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private JwtHelper jwtHelper;
+
+    private final List<Tour> tours = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < TOURS; i++) {
+            tours.add(tourRepository.save(tour(i)));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        tourRepository.deleteAll(tours);
+    }
+
+    @Test
+    void allToursPageCostsTheSameForAnySize() {
+        long small = statements(() -> tourService.getAllTours(0, 5, "id", "desc"), 5);
+        long large = statements(() -> tourService.getAllTours(0, TOURS, "id", "desc"), TOURS);
+
+        assertThat(large).isEqualTo(small).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    @Test
+    void filteredPageCostsTheSameForAnySize() {
+        TourFilterDto filter = new TourFilterDto();
+        filter.setCategory(TourCategory.OTHER);
+
+        long small = statements(() -> tourService.filterTours(filter, 0, 5, "id", "desc"), 5);
+        long large = statements(() -> tourService.filterTours(filter, 0, TOURS, "id", "desc"), TOURS);
+
+        assertThat(large).isEqualTo(small).isLessThanOrEqualTo(MAX_STATEMENTS_PER_PAGE);
+    }
+
+    private long statements(Supplier<PagedResponse<TourResponseDto>> listing, int expectedSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        PagedResponse<TourResponseDto> page = listing.get();
+
+        assertThat(page.getContent()).hasSize(expectedSize);
+        assertThat(page.getContent()).allSatisfy(dto -> {
+            assertThat(dto.getDayInfo()).hasSize(2);
+            assertThat(dto.getRoute()).hasSize(2);
+        });
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static Tour tour(int i) {
+        Tour tour = new Tour();
+        tour.setName("Listeleme Turu " + i);
+        tour.setSlug("listeleme-turu-" + i);
+        tour.setCategory(TourCategory.OTHER);
+        tour.setStatus(TourStatus.PUBLISHED);
+        tour.setPrice(BigDecimal.valueOf(1000 + i));
+        tour.setDestinations(new ArrayList<>(List.of("Küba", "Meksika")));
+        tour.setRoute(new ArrayList<>(List.of(new TourRouteStop("Havana", "Küba"), new TourRouteStop("Cancún", "Meksika"))));
+        tour.setRouteCoordinates(new ArrayList<>(List.of(new TourRouteCoordinate("Havana", "Küba", 23.1, -82.4))));
+        tour.setDayInfoFromList(new ArrayList<>(List.of(
+                TourDay.builder().dayNumber(1).title("Havana").build(),
+                TourDay.builder().dayNumber(2).title("Cancún").build())));
+        return tour;
+    }
+}
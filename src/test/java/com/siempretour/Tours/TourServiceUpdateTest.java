@@ -0,0 +1,92 @@
+package com.siempretour.Tours;
+
+import com.siempretour.Security.JwtHelper;
+import com.siempretour.Tours.Dto.TourDayDto;
+import com.siempretour.Tours.Dto.TourRouteStopDto;
+import com.siempretour.Tours.Dto.TourUpdateDto;
+import com.siempretour.Tours.Models.Tour;
+import com.siempretour.Tours.Models.TourCategory;
+import com.siempretour.Tours.Models.TourStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/** updatedAt drives the ETag / Last-Modified of the tour detail, so every edit must move it. */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class TourServiceUpdateTest {
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @MockitoBean
+    private JwtHelper jwtHelper;
+
+    private Tour tour;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtHelper.getCurrentUserId()).thenReturn(1L);
+
+        Tour newTour = new Tour();
+        newTour.setName("Küba Turu");
+        newTour.setSlug("kuba-turu");
+        newTour.setCategory(TourCategory.OTHER);
+        newTour.setStatus(TourStatus.PUBLISHED);
+        newTour.setPrice(BigDecimal.valueOf(1000));
+        tour = tourRepository.save(newTour);
+    }
+
+    @AfterEach
+    void tearDown() {
+        tourRepository.deleteAll();
+    }
+
+    @Test
+    void dayDescriptionOnlyEditsMoveUpdatedAt() throws InterruptedException {
+        tourService.updateTour(tour.getId(), dayProgramme("Eski şehir"));
+        LocalDateTime before = tourRepository.findById(tour.getId()).orElseThrow().getUpdatedAt();
+        Thread.sleep(20);
+
+        // Same day title, so neither the tour row nor its search document changes
+        tourService.updateTour(tour.getId(), dayProgramme("Eski şehir ve Malecón"));
+
+        assertThat(tourRepository.findById(tour.getId()).orElseThrow().getUpdatedAt()).isAfter(before);
+    }
+
+    @Test
+    void routeOnlyEditsMoveUpdatedAt() throws InterruptedException {
+        LocalDateTime before = tourRepository.findById(tour.getId()).orElseThrow().getUpdatedAt();
+        Thread.sleep(20);
+
+        TourUpdateDto dto = new TourUpdateDto();
+        TourRouteStopDto stop = new TourRouteStopDto();
+        stop.setName("Havana");
+        stop.setCountry("Küba");
+        dto.setRoute(new ArrayList<>(List.of(stop)));
+        tourService.updateTour(tour.getId(), dto);
+
+        assertThat(tourRepository.findById(tour.getId()).orElseThrow().getUpdatedAt()).isAfter(before);
+    }
+
+    private static TourUpdateDto dayProgramme(String description) {
+        TourUpdateDto dto = new TourUpdateDto();
+        dto.setDayInfo(List.of(TourDayDto.builder().dayNumber(1).title("Havana").description(description).build()));
+        return dto;
+    }
+}